@@ -2,8 +2,10 @@ package com.doorserve;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DoorServeApplication {
     public static void main(String[] args) {
         SpringApplication.run(DoorServeApplication.class, args);
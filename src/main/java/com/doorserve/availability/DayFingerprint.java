@@ -0,0 +1,11 @@
+package com.doorserve.availability;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cheap summary of a partner's booking rows for one day, in every status.
+ * Inserting, updating or moving a booking bumps its created or updated timestamp or changes the
+ * count, so a cached {@link DaySchedule} whose fingerprint still matches the database is current.
+ */
+record DayFingerprint(long bookings, Long lastId, LocalDateTime lastModified) {
+}
@@ -0,0 +1,83 @@
+package com.doorserve.availability;
+
+import java.util.List;
+
+/**
+ * A partner's booked intervals on one day, as seconds of the day.
+ * Intervals are sorted by start, and {@code maxEnd[i]} holds the latest end among the first
+ * {@code i + 1} of them, so whether a new interval overlaps anything takes one binary search.
+ * Immutable; a changed day gets a new instance.
+ */
+final class DaySchedule {
+
+    /**
+     * One booked interval. End is exclusive, so back-to-back bookings do not overlap.
+     */
+    record Interval(long bookingId, int start, int end) {
+    }
+
+    private final long[] bookingIds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnd;
+    private final DayFingerprint fingerprint;
+
+    /**
+     * @param sortedByStart The day's intervals, ordered by start
+     * @param fingerprint Database state the intervals were read at, compared before every use
+     */
+    DaySchedule(List<Interval> sortedByStart, DayFingerprint fingerprint) {
+        int size = sortedByStart.size();
+        this.bookingIds = new long[size];
+        this.starts = new int[size];
+        this.ends = new int[size];
+        this.maxEnd = new int[size];
+        this.fingerprint = fingerprint;
+        for (int i = 0; i < size; i++) {
+            Interval interval = sortedByStart.get(i);
+            bookingIds[i] = interval.bookingId();
+            starts[i] = interval.start();
+            ends[i] = interval.end();
+            maxEnd[i] = i == 0 ? interval.end() : Math.max(maxEnd[i - 1], interval.end());
+        }
+    }
+
+    DayFingerprint fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Whether {@code [start, end)} overlaps a booked interval
+     * @param excludeBookingId Booking to ignore, e.g. the one being rescheduled, or null
+     */
+    boolean overlaps(int start, int end, Long excludeBookingId) {
+        // Last interval starting before the new one ends; nothing after it can overlap
+        int last = lastStartBefore(end);
+        if (last < 0 || maxEnd[last] <= start) {
+            return false;
+        }
+        if (excludeBookingId == null) {
+            return true;
+        }
+        for (int i = last; i >= 0 && maxEnd[i] > start; i--) {
+            if (ends[i] > start && bookingIds[i] != excludeBookingId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lastStartBefore(int time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+}
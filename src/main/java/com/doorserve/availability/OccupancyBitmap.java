@@ -0,0 +1,59 @@
+package com.doorserve.availability;
+
+/**
+ * Busy time of one partner's day as a bitset of 15-minute slots, so checking a time range is a few
+ * word-wide ANDs. Slots are coarse: a slot counts as busy if anything overlaps any part of it.
+ */
+final class OccupancyBitmap {
+
+    static final int SLOT_SECONDS = 15 * 60;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int SLOTS_PER_DAY = SECONDS_PER_DAY / SLOT_SECONDS;
+
+    private final long[] words = new long[(SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE];
+
+    /**
+     * Mark a time range as busy
+     * @param startSecond Start, in seconds of the day
+     * @param endSecond End, exclusive; at or before the start means the range runs past midnight
+     */
+    void markBusy(int startSecond, int endSecond) {
+        int end = endSecond > startSecond ? endSecond : SECONDS_PER_DAY;
+        int from = startSecond / SLOT_SECONDS;
+        int to = slotCeiling(end);
+        for (int word = from / Long.SIZE; word < words.length && word * Long.SIZE < to; word++) {
+            words[word] |= rangeMask(word, from, to);
+        }
+    }
+
+    /**
+     * Whether no slot touched by a time range is busy
+     * @param startSecond Start, in seconds of the day
+     * @param endSecond End, exclusive
+     */
+    boolean isFree(int startSecond, int endSecond) {
+        int from = startSecond / SLOT_SECONDS;
+        int to = slotCeiling(endSecond);
+        for (int word = from / Long.SIZE; word < words.length && word * Long.SIZE < to; word++) {
+            if ((words[word] & rangeMask(word, from, to)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slotCeiling(int second) {
+        return Math.min((second + SLOT_SECONDS - 1) / SLOT_SECONDS, SLOTS_PER_DAY);
+    }
+
+    // Bits of one word that fall within slots [from, to)
+    private static long rangeMask(int word, int from, int to) {
+        int low = Math.max(from - word * Long.SIZE, 0);
+        int high = Math.min(to - word * Long.SIZE, Long.SIZE);
+        if (low >= high) {
+            return 0;
+        }
+        long belowHigh = high == Long.SIZE ? -1L : (1L << high) - 1;
+        return belowHigh & (-1L << low);
+    }
+}
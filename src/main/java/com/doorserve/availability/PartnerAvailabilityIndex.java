@@ -0,0 +1,148 @@
+package com.doorserve.availability;
+
+import com.doorserve.event.BookingChangedEvent;
+import com.doorserve.model.Booking;
+import com.doorserve.repository.BookingRepository;
+import com.doorserve.repository.SlotHoldRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Booked intervals per partner and day, for overlap checks without loading booking entities.
+ * Unexpired slot holds are checked with one more query and count as busy as well.
+ *
+ * The database stays the source of truth: every check first reads the day's fingerprint with one
+ * aggregate query and reloads the day's intervals if the cached copy no longer matches, so a stale
+ * entry can cost an extra query but never lets an overlapping booking through. Committed booking
+ * writes evict the affected day right away.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerAvailabilityIndex {
+
+    private final BookingRepository bookingRepository;
+    private final SlotHoldRepository slotHoldRepository;
+
+    private final Map<Long, Map<LocalDate, DaySchedule>> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a partner is free for the whole of a time range
+     * @param partnerId The partner's user ID
+     * @param date The day
+     * @param startTime Start of the range
+     * @param endTime End of the range, exclusive
+     * @param excludeBookingId Booking to ignore, e.g. the one being rescheduled, or null
+     * @param excludeOrderId Order whose slot holds to ignore, e.g. the one being confirmed, or null
+     * @return true if no active booking or unexpired slot hold of the partner overlaps the range
+     */
+    public boolean isAvailable(Long partnerId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                               Long excludeBookingId, Long excludeOrderId) {
+        if (schedule(partnerId, date).overlaps(startTime.toSecondOfDay(), endTime.toSecondOfDay(), excludeBookingId)) {
+            return false;
+        }
+        return !slotHoldRepository.existsActiveOverlapping(partnerId, date, startTime, endTime,
+                LocalDateTime.now(), excludeOrderId);
+    }
+
+    /**
+     * Which of several days a partner is busy at the same time of day, e.g. the occurrences of a
+     * recurring booking
+     * @param partnerId The partner's user ID
+     * @param days The days to check
+     * @param startTime Start of the range on each day
+     * @param endTime End of the range on each day, exclusive
+     * @return The days on which an active booking or unexpired slot hold overlaps the range, in input order
+     */
+    public List<LocalDate> findConflictingDays(Long partnerId, List<LocalDate> days, LocalTime startTime,
+                                               LocalTime endTime) {
+        List<SlotHoldService.Slot> slots = days.stream()
+                .map(day -> new SlotHoldService.Slot(partnerId, day, startTime, endTime))
+                .toList();
+        return findConflicts(partnerId, slots).stream().mapToObj(days::get).toList();
+    }
+
+    /**
+     * Which of several time slots of one partner overlap the partner's active bookings or unexpired
+     * slot holds. Reads the whole date range with one query for bookings and one for holds.
+     * @param partnerId The partner's user ID
+     * @param slots Slots of that partner, in any order
+     * @return Indexes of the conflicting slots
+     */
+    public BitSet findConflicts(Long partnerId, List<SlotHoldService.Slot> slots) {
+        BitSet conflicts = new BitSet(slots.size());
+        if (slots.isEmpty()) {
+            return conflicts;
+        }
+        LocalDate from = slots.stream().map(SlotHoldService.Slot::date).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = slots.stream().map(SlotHoldService.Slot::date).max(Comparator.naturalOrder()).orElseThrow();
+        Map<LocalDate, List<DaySchedule.Interval>> byDay = new HashMap<>();
+        List<BookingRepository.BookedInterval> busy = new ArrayList<>(
+                bookingRepository.findBookedIntervalsBetween(partnerId, from, to));
+        busy.addAll(slotHoldRepository.findActiveIntervalsBetween(partnerId, from, to, LocalDateTime.now()));
+        for (BookingRepository.BookedInterval interval : busy) {
+            byDay.computeIfAbsent(interval.getBookingDate(), day -> new ArrayList<>())
+                    .add(new DaySchedule.Interval(interval.getId(),
+                            interval.getStartTime().toSecondOfDay(), interval.getEndTime().toSecondOfDay()));
+        }
+
+        Map<LocalDate, DaySchedule> schedulesByDay = new HashMap<>();
+        byDay.forEach((day, intervals) -> {
+            intervals.sort(Comparator.comparingInt(DaySchedule.Interval::start));
+            schedulesByDay.put(day, new DaySchedule(intervals, null));
+        });
+        for (int i = 0; i < slots.size(); i++) {
+            SlotHoldService.Slot slot = slots.get(i);
+            DaySchedule schedule = schedulesByDay.get(slot.date());
+            if (schedule != null && schedule.overlaps(slot.startTime().toSecondOfDay(),
+                    slot.endTime().toSecondOfDay(), null)) {
+                conflicts.set(i);
+            }
+        }
+        return conflicts;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.booking();
+        if (booking.getPartner() == null) {
+            return;
+        }
+        Map<LocalDate, DaySchedule> days = schedules.get(booking.getPartner().getId());
+        if (days != null) {
+            days.remove(booking.getBookingDate());
+            // Past days are never checked again
+            days.keySet().removeIf(LocalDate.now()::isAfter);
+        }
+    }
+
+    private DaySchedule schedule(Long partnerId, LocalDate date) {
+        // Fingerprint before intervals: a write in between makes the entry look stale, never fresh
+        BookingRepository.DayFingerprint row = bookingRepository.findDayFingerprint(partnerId, date);
+        DayFingerprint fingerprint = new DayFingerprint(row.getBookings(), row.getLastId(), row.getLastModified());
+
+        Map<LocalDate, DaySchedule> days = schedules.computeIfAbsent(partnerId, id -> new ConcurrentHashMap<>());
+        DaySchedule cached = days.get(date);
+        if (cached != null && cached.fingerprint().equals(fingerprint)) {
+            return cached;
+        }
+        List<DaySchedule.Interval> intervals = bookingRepository.findBookedIntervals(partnerId, date).stream()
+                .map(interval -> new DaySchedule.Interval(interval.getId(),
+                        interval.getStartTime().toSecondOfDay(), interval.getEndTime().toSecondOfDay()))
+                .toList();
+        DaySchedule loaded = new DaySchedule(intervals, fingerprint);
+        days.put(date, loaded);
+        return loaded;
+    }
+}
@@ -0,0 +1,163 @@
+package com.doorserve.availability;
+
+import com.doorserve.event.BookingChangedEvent;
+import com.doorserve.model.Booking;
+import com.doorserve.repository.BookingRepository;
+import com.doorserve.repository.SlotHoldRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Occupancy bitmaps per partner and day, for finding which of many partners are free at a time.
+ * Missing or expired days of all requested partners are loaded with one query, and unexpired slot
+ * holds are overlaid with one more, so a search costs at most two queries however many partners it covers.
+ *
+ * Answers are candidates, not guarantees: committed booking writes on this node evict the affected day
+ * right away, but writes on other nodes only show once the entry expires. Booking still rechecks the
+ * slot under the partner's lock. Expired entries and past days are swept out every TTL, so the index
+ * only holds what was searched recently.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerOccupancyIndex {
+
+    private final BookingRepository bookingRepository;
+    private final SlotHoldRepository slotHoldRepository;
+
+    // Bounds how long a booking made on another node can go unnoticed
+    @Value("${availability.occupancy-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${availability.opening-time:08:00}")
+    private String openingTime;
+
+    // Start times are tried on the same grid SlotFinder offers them on
+    @Value("${availability.slot-step-minutes:30}")
+    private int slotStepMinutes;
+
+    private final Map<LocalDate, Map<Long, CachedDay>> days = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // A null bitmap marks an evicted day; the sequence stops a load that raced the eviction from replacing it.
+    // Either kind is kept for one TTL from when it was loaded or evicted
+    private record CachedDay(OccupancyBitmap bookings, long sequence, long loadedAtMillis) {
+    }
+
+    /**
+     * Earliest time at which each partner can start a job of their own length
+     * @param durations Partner ids mapped to job length in minutes
+     * @param date The day
+     * @param earliestStart First acceptable start time; starts are tried on the slot grid from there
+     * @param latestStart Last acceptable start time
+     * @param latestEnd Time by which the job must be over
+     * @return Partners that fit mapped to their earliest start, in the iteration order of {@code durations}
+     */
+    public Map<Long, LocalTime> findEarliestStarts(Map<Long, Integer> durations, LocalDate date,
+                                                   LocalTime earliestStart, LocalTime latestStart,
+                                                   LocalTime latestEnd) {
+        if (durations.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, OccupancyBitmap> booked = bookedBitmaps(List.copyOf(durations.keySet()), date);
+        Map<Long, OccupancyBitmap> held = new HashMap<>();
+        for (BookingRepository.PartnerInterval hold : slotHoldRepository.findActiveIntervalsForPartners(
+                durations.keySet(), date, LocalDateTime.now())) {
+            held.computeIfAbsent(hold.getPartnerId(), id -> new OccupancyBitmap())
+                    .markBusy(hold.getStartTime().toSecondOfDay(), hold.getEndTime().toSecondOfDay());
+        }
+
+        int step = slotStepMinutes * 60;
+        int first = alignUp(earliestStart.toSecondOfDay(), LocalTime.parse(openingTime).toSecondOfDay(), step);
+        int last = latestStart.toSecondOfDay();
+        int end = latestEnd.toSecondOfDay();
+        Map<Long, LocalTime> starts = new LinkedHashMap<>();
+        durations.forEach((partnerId, minutes) -> {
+            OccupancyBitmap bookings = booked.get(partnerId);
+            OccupancyBitmap holds = held.get(partnerId);
+            int length = minutes * 60;
+            for (int start = first; start <= last && start + length <= end; start += step) {
+                if (bookings.isFree(start, start + length) && (holds == null || holds.isFree(start, start + length))) {
+                    starts.put(partnerId, LocalTime.ofSecondOfDay(start));
+                    return;
+                }
+            }
+        });
+        return starts;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.booking();
+        if (booking.getPartner() == null) {
+            return;
+        }
+        Map<Long, CachedDay> partners = days.get(booking.getBookingDate());
+        if (partners != null) {
+            partners.put(booking.getPartner().getId(),
+                    new CachedDay(null, sequence.incrementAndGet(), System.currentTimeMillis()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${availability.occupancy-ttl-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        // Past days are never searched again
+        days.keySet().removeIf(LocalDate.now()::isAfter);
+        days.values().forEach(partners -> partners.values().removeIf(day -> isExpired(day, now)));
+        days.values().removeIf(Map::isEmpty);
+    }
+
+    private boolean isExpired(CachedDay day, long now) {
+        return now - day.loadedAtMillis() >= ttlSeconds * 1000;
+    }
+
+    private static int alignUp(int time, int origin, int step) {
+        if (time <= origin) {
+            return origin;
+        }
+        return origin + (time - origin + step - 1) / step * step;
+    }
+
+    private Map<Long, OccupancyBitmap> bookedBitmaps(List<Long> partnerIds, LocalDate date) {
+        Map<Long, CachedDay> cached = days.computeIfAbsent(date, day -> new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+        Map<Long, OccupancyBitmap> bitmaps = new HashMap<>();
+        Map<Long, OccupancyBitmap> missing = new HashMap<>();
+        for (Long partnerId : partnerIds) {
+            CachedDay day = cached.get(partnerId);
+            if (day != null && day.bookings() != null && !isExpired(day, now)) {
+                bitmaps.put(partnerId, day.bookings());
+            } else {
+                missing.put(partnerId, new OccupancyBitmap());
+            }
+        }
+        if (missing.isEmpty()) {
+            return bitmaps;
+        }
+
+        long loadSequence = sequence.incrementAndGet();
+        for (BookingRepository.PartnerInterval interval
+                : bookingRepository.findBookedIntervalsForPartners(missing.keySet(), date)) {
+            missing.get(interval.getPartnerId())
+                    .markBusy(interval.getStartTime().toSecondOfDay(), interval.getEndTime().toSecondOfDay());
+        }
+        missing.forEach((partnerId, bitmap) -> cached.merge(partnerId, new CachedDay(bitmap, loadSequence, now),
+                (previous, loaded) -> previous.sequence() > loaded.sequence() ? previous : loaded));
+        bitmaps.putAll(missing);
+        return bitmaps;
+    }
+}
@@ -0,0 +1,37 @@
+package com.doorserve.availability;
+
+import com.doorserve.repository.AdvisoryLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Serializes writes to a partner's schedule (bookings and slot holds) across every application node,
+ * using a Postgres advisory lock held until the current transaction ends. Availability checks made
+ * after taking the lock see everything the previous holder committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerScheduleLock {
+
+    // Advisory lock namespace; see AdvisoryLockRepository
+    private static final int PARTNER_SCHEDULE_LOCK = 1;
+
+    private final AdvisoryLockRepository advisoryLockRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Long partnerId) {
+        advisoryLockRepository.acquireXactLock(PARTNER_SCHEDULE_LOCK, Long.hashCode(partnerId));
+    }
+
+    /**
+     * Lock several partners in ascending id order, so two transactions can never wait on each other
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockAll(Collection<Long> partnerIds) {
+        partnerIds.stream().distinct().sorted().forEach(this::lock);
+    }
+}
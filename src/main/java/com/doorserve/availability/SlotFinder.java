@@ -0,0 +1,110 @@
+package com.doorserve.availability;
+
+import com.doorserve.repository.BookingRepository;
+import com.doorserve.repository.SlotHoldRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds every bookable start time of a partner over a date range.
+ * The partner's active bookings in the range come from one query, ordered by date and start,
+ * and each day is swept once alongside them, so the cost is linear in days plus bookings.
+ * Unexpired slot holds are merged in as busy time.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotFinder {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final Comparator<BookingRepository.BookedInterval> BY_DATE_AND_START =
+            Comparator.comparing(BookingRepository.BookedInterval::getBookingDate)
+                    .thenComparing(BookingRepository.BookedInterval::getStartTime);
+
+    private final BookingRepository bookingRepository;
+    private final SlotHoldRepository slotHoldRepository;
+
+    @Value("${availability.opening-time:08:00}")
+    private String openingTime;
+
+    @Value("${availability.closing-time:20:00}")
+    private String closingTime;
+
+    // Start times are offered on this grid from opening time, e.g. 8:00, 8:30, 9:00
+    @Value("${availability.slot-step-minutes:30}")
+    private int slotStepMinutes;
+
+    /**
+     * Bookable start times of a partner for a job of the given length
+     * @param partnerId The partner's user ID
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @param durationMinutes Length of the job
+     * @return Each day of the range mapped to its free start times, in order
+     */
+    public Map<LocalDate, List<LocalTime>> findFreeStartTimes(Long partnerId, LocalDate from, LocalDate to,
+                                                              int durationMinutes) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingRepository.BookedInterval> booked = new ArrayList<>(
+                bookingRepository.findBookedIntervalsBetween(partnerId, from, to));
+        List<BookingRepository.BookedInterval> held = slotHoldRepository.findActiveIntervalsBetween(partnerId, from, to, now);
+        if (!held.isEmpty()) {
+            booked.addAll(held);
+            booked.sort(BY_DATE_AND_START);
+        }
+        int open = LocalTime.parse(openingTime).toSecondOfDay();
+        int close = LocalTime.parse(closingTime).toSecondOfDay();
+        int step = slotStepMinutes * 60;
+        int duration = durationMinutes * 60;
+
+        Map<LocalDate, List<LocalTime>> slots = new LinkedHashMap<>();
+        int next = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<LocalTime> starts = new ArrayList<>();
+            int candidate = open;
+            if (day.isBefore(now.toLocalDate())) {
+                candidate = close;
+            } else if (day.equals(now.toLocalDate())) {
+                candidate = Math.max(open, alignUp(now.toLocalTime().toSecondOfDay(), open, step));
+            }
+            for (; next < booked.size() && booked.get(next).getBookingDate().equals(day); next++) {
+                BookingRepository.BookedInterval interval = booked.get(next);
+                int busyStart = interval.getStartTime().toSecondOfDay();
+                int busyEnd = endOf(interval);
+                for (; candidate + duration <= Math.min(busyStart, close); candidate += step) {
+                    starts.add(LocalTime.ofSecondOfDay(candidate));
+                }
+                candidate = Math.max(candidate, alignUp(busyEnd, open, step));
+            }
+            for (; candidate + duration <= close; candidate += step) {
+                starts.add(LocalTime.ofSecondOfDay(candidate));
+            }
+            slots.put(day, starts);
+        }
+        return slots;
+    }
+
+    private static int endOf(BookingRepository.BookedInterval interval) {
+        int start = interval.getStartTime().toSecondOfDay();
+        int end = interval.getEndTime().toSecondOfDay();
+        // An end at or before the start means the booking runs past midnight
+        return end > start ? end : SECONDS_PER_DAY;
+    }
+
+    private static int alignUp(int time, int origin, int step) {
+        if (time <= origin) {
+            return origin;
+        }
+        return origin + (time - origin + step - 1) / step * step;
+    }
+}
@@ -0,0 +1,131 @@
+package com.doorserve.availability;
+
+import com.doorserve.model.SlotHold;
+import com.doorserve.repository.SlotHoldRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived reservations of partner time slots while an order is being paid for.
+ *
+ * Holds are rows in {@code slot_holds}, so every node sees them, and every read ignores rows past
+ * their deadline, so an expired hold stops blocking the slot on time even if nobody has deleted it
+ * yet. Deleting them is left to a timer wheel advanced by a single ticker thread, which removes each
+ * tick's expired holds in one statement.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlotHoldService {
+
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 512;
+
+    private final SlotHoldRepository slotHoldRepository;
+    private final PartnerAvailabilityIndex partnerAvailabilityIndex;
+    private final PartnerScheduleLock partnerScheduleLock;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${holds.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    private final TimerWheel<Long> expiries = new TimerWheel<>(TICK, WHEEL_SIZE, Instant.now());
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A slot to hold for an order
+     */
+    public record Slot(Long partnerId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+    }
+
+    /**
+     * Clear holds left behind by a previous run, pick up the live ones and start expiring them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer purged = transactionTemplate.execute(status -> slotHoldRepository.deleteAllExpired(now));
+        List<SlotHoldRepository.HoldExpiry> active = slotHoldRepository.findActive(now);
+        active.forEach(hold -> expiries.schedule(hold.getId(), toInstant(hold.getExpiresAt())));
+        ticker.scheduleAtFixedRate(this::expire, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Slot holds started with {} active holds ({} expired holds purged)", active.size(), purged);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Hold slots for an order. Must run inside the transaction that creates the order,
+     * and fails it if any slot is already booked or held by another order.
+     * @param orderId The order the slots are held for
+     * @param slots The slots to hold
+     * @throws IllegalStateException if a slot is not available
+     */
+    public void hold(Long orderId, List<Slot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        partnerScheduleLock.lockAll(slots.stream().map(Slot::partnerId).toList());
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        List<SlotHold> holds = slots.stream()
+                .map(slot -> {
+                    if (!partnerAvailabilityIndex.isAvailable(slot.partnerId(), slot.date(), slot.startTime(),
+                            slot.endTime(), null, orderId)) {
+                        throw new IllegalStateException("The partner is not available at the requested time");
+                    }
+                    return new SlotHold(null, orderId, slot.partnerId(), slot.date(), slot.startTime(),
+                            slot.endTime(), expiresAt, null);
+                })
+                .toList();
+        slotHoldRepository.saveAll(holds)
+                .forEach(hold -> expiries.schedule(hold.getId(), toInstant(hold.getExpiresAt())));
+    }
+
+    /**
+     * Release an order's holds, e.g. when they have been turned into bookings
+     * @param orderId The order
+     */
+    public void release(Long orderId) {
+        slotHoldRepository.deleteByOrderId(orderId);
+    }
+
+    private void expire() {
+        try {
+            List<Long> due = expiries.advance(Instant.now());
+            if (!due.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> slotHoldRepository.deleteExpired(due, now));
+            }
+        } catch (RuntimeException e) {
+            // Expired rows are ignored by every read anyway; the next restart purges them
+            log.warn("Failed to delete expired slot holds", e);
+        }
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,76 @@
+package com.doorserve.availability;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel: deadlines are dropped into one of a fixed ring of buckets by tick, and each
+ * tick only looks at its own bucket. Scheduling is O(1) and expiring costs one bucket scan per
+ * tick, however many timers are pending, instead of one scheduled task per timer.
+ * Deadlines further out than one turn of the wheel wait for their round to come up.
+ */
+final class TimerWheel<T> {
+
+    private record Timer<T>(long deadlineTick, T item) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> buckets;
+    private long lastTick;
+    private int size;
+
+    TimerWheel(Duration tick, int wheelSize, Instant start) {
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.lastTick = tickOf(start);
+    }
+
+    synchronized void schedule(T item, Instant deadline) {
+        // Fire on the first tick at or after the deadline; anything already due goes into the next tick
+        long tick = Math.max(Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis), lastTick + 1);
+        buckets.get(bucketOf(tick)).add(new Timer<>(tick, item));
+        size++;
+    }
+
+    /**
+     * Move the wheel up to the given time
+     * @return Items whose deadline has passed, in no particular order
+     */
+    synchronized List<T> advance(Instant now) {
+        long target = tickOf(now);
+        List<T> expired = new ArrayList<>();
+        // A long pause only needs one full turn: after that every bucket has been visited
+        long from = Math.max(lastTick + 1, target - buckets.size() + 1);
+        for (long tick = from; tick <= target; tick++) {
+            Iterator<Timer<T>> timers = buckets.get(bucketOf(tick)).iterator();
+            while (timers.hasNext()) {
+                Timer<T> timer = timers.next();
+                if (timer.deadlineTick() <= target) {
+                    expired.add(timer.item());
+                    timers.remove();
+                    size--;
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, target);
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private long tickOf(Instant time) {
+        return Math.floorDiv(time.toEpochMilli(), tickMillis);
+    }
+
+    private int bucketOf(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+}
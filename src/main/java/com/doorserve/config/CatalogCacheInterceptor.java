@@ -0,0 +1,64 @@
+package com.doorserve.config;
+
+import com.doorserve.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * Conditional GET support for the public catalog endpoints.
+ * The ETag and Last-Modified come from {@link CatalogVersionService}, so a matching
+ * If-None-Match or If-Modified-Since is answered with 304 before the controller runs:
+ * no database query and no JSON serialization.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInterceptor implements HandlerInterceptor {
+
+    private static final PathMatcher PATHS = new AntPathMatcher();
+
+    // Routes that also render data the catalog version does not track: user rows, bookings and reviews
+    private static final List<String> UNVERSIONED = List.of(
+            "/api/providers/*", "/api/providers/*/services/*", "/api/services/featured",
+            "/api/services/*/details", "/api/services/by-slug/*/details");
+
+    private final CatalogVersionService catalogVersionService;
+
+    @Value("${http.cache.catalog.max-age:60}")
+    private long catalogMaxAge;
+
+    @Value("${http.cache.catalog.stale-while-revalidate:300}")
+    private long catalogStaleWhileRevalidate;
+
+    @Value("${http.cache.unversioned.max-age:30}")
+    private long unversionedMaxAge;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        if (UNVERSIONED.stream().anyMatch(pattern -> PATHS.match(pattern, path))) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + unversionedMaxAge);
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + catalogMaxAge
+                + ", stale-while-revalidate=" + catalogStaleWhileRevalidate);
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        return !webRequest.checkNotModified(catalogVersionService.etag(),
+                catalogVersionService.lastModified().toEpochMilli());
+    }
+}
@@ -0,0 +1,26 @@
+package com.doorserve.config;
+
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Steps the pooled id sequences by the entities' allocationSize, see db/id-sequences.sql.
+ * As a database initializer it runs before the EntityManagerFactory is built.
+ */
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public DataSourceScriptDatabaseInitializer idSequenceInitializer(DataSource dataSource) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of("classpath:db/id-sequences.sql"));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings);
+    }
+}
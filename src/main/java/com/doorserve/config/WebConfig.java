@@ -0,0 +1,21 @@
+package com.doorserve.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogCacheInterceptor catalogCacheInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogCacheInterceptor)
+                .addPathPatterns("/api/services/**", "/api/categories/**", "/api/providers/**")
+                // Free slots and partners change with every booking; they keep the default no-store headers
+                .excludePathPatterns("/api/providers/*/slots", "/api/providers/available");
+    }
+}
@@ -1,16 +1,30 @@
 package com.doorserve.controller;
 
+import com.doorserve.dto.BatchBookingRequest;
+import com.doorserve.dto.BatchBookingResultDto;
 import com.doorserve.dto.BookingDto;
+import com.doorserve.dto.BookingFilter;
 import com.doorserve.dto.BookingRequest;
+import com.doorserve.dto.BookingSeriesDto;
+import com.doorserve.dto.CursorPageDto;
+import com.doorserve.dto.RecurringBookingRequest;
+import com.doorserve.exception.UnauthorizedException;
 import com.doorserve.model.User;
+import com.doorserve.model.UserType;
 import com.doorserve.service.AuthService;
 import com.doorserve.service.BookingService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -19,6 +33,7 @@ public class BookingController {
 
     private final BookingService bookingService;
     private final AuthService authService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<BookingDto> createBooking(
@@ -28,29 +43,83 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.createBooking(bookingRequest, currentUser));
     }
 
+    // Several services for one visit, booked together or not at all; 409 with per-item results if any fails
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBookingResultDto> createBookings(
+            @RequestBody BatchBookingRequest request,
+            Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        BatchBookingResultDto result = bookingService.createBookings(request, currentUser);
+        return ResponseEntity.status(result.isBooked() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+
+    // Weekly or bi-weekly bookings; 409 with the conflicting dates if the series cannot be booked as asked
+    @PostMapping("/series")
+    public ResponseEntity<BookingSeriesDto> createRecurringBookings(
+            @RequestBody RecurringBookingRequest request,
+            Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        BookingSeriesDto series = bookingService.createRecurringBookings(request, currentUser);
+        if (series.getSeriesId() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(series);
+        }
+        return ResponseEntity.ok(series);
+    }
+
     @GetMapping
-    public ResponseEntity<List<BookingDto>> getCurrentUserBookings(
+    public ResponseEntity<CursorPageDto<BookingDto>> getCurrentUserBookings(
             Authentication authentication,
-            @RequestParam(required = false) String status) {
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         User currentUser = authService.getCurrentUser(authentication);
-        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, status));
+        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, filter, cursor, limit));
     }
 
     @GetMapping("/customer")
-    public ResponseEntity<List<BookingDto>> getCustomerBookings(
+    public ResponseEntity<CursorPageDto<BookingDto>> getCustomerBookings(
             Authentication authentication,
-            @RequestParam(required = false) String status) {
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         User currentUser = authService.getCurrentUser(authentication);
-        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, status));
+        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, filter, cursor, limit));
     }
 
     @GetMapping("/partner")
-    public ResponseEntity<List<BookingDto>> getPartnerBookings(
+    public ResponseEntity<CursorPageDto<BookingDto>> getPartnerBookings(
             Authentication authentication,
-            @RequestParam(required = false) String status) {
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         User currentUser = authService.getCurrentUser(authentication);
         // For now, return the same as user bookings. This would typically filter by partner
-        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, status));
+        return ResponseEntity.ok(bookingService.getUserBookings(currentUser, filter, cursor, limit));
+    }
+
+    // Every matching booking as one JSON array, written while it is read from the database
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            Authentication authentication,
+            BookingFilter filter) {
+        User currentUser = authService.getCurrentUser(authentication);
+        if (currentUser.getUserType() != UserType.ADMIN) {
+            throw new UnauthorizedException("Only admins can export bookings");
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                bookingService.streamBookings(currentUser, filter, booking -> {
+                    try {
+                        json.writeObject(booking);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -1,12 +1,12 @@
 package com.doorserve.controller;
 
+import com.doorserve.dto.CategorySummaryDto;
 import com.doorserve.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -16,14 +16,14 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllCategories() {
-        List<Map<String, Object>> categories = categoryService.getAllCategories();
+    public ResponseEntity<List<CategorySummaryDto>> getAllCategories() {
+        List<CategorySummaryDto> categories = categoryService.getAllCategories();
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/{categoryName}")
-    public ResponseEntity<Map<String, Object>> getCategoryByName(@PathVariable String categoryName) {
-        Map<String, Object> category = categoryService.getCategoryByName(categoryName);
+    public ResponseEntity<CategorySummaryDto> getCategoryByName(@PathVariable String categoryName) {
+        CategorySummaryDto category = categoryService.getCategoryByName(categoryName);
         if (category == null) {
             return ResponseEntity.notFound().build();
         }
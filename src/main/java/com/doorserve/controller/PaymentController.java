@@ -1,17 +1,24 @@
 package com.doorserve.controller;
 
 import com.doorserve.dto.*;
+import com.doorserve.exception.PaymentGatewayException;
 import com.doorserve.model.User;
 import com.doorserve.service.AuthService;
+import com.doorserve.service.IdempotencyService;
+import com.doorserve.service.OrderStatusNotifier;
 import com.doorserve.service.PaymentService;
-import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 
+@Slf4j
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
@@ -20,18 +27,57 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final AuthService authService;
+    private final IdempotencyService idempotencyService;
+    private final OrderStatusNotifier orderStatusNotifier;
 
+    // Retries with the same Idempotency-Key get the first response instead of a second order
     @PostMapping("/create-payment-intent")
     public ResponseEntity<?> createPaymentIntent(
             @RequestBody PaymentIntentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        if (idempotencyKey == null) {
+            return doCreatePaymentIntent(request, currentUser);
+        }
+        return idempotencyService.execute(idempotencyKey, currentUser.getId(), "create-payment-intent", request,
+                () -> doCreatePaymentIntent(request, currentUser));
+    }
+
+    @PostMapping("/confirm-payment")
+    public ResponseEntity<?> confirmPayment(
+            @RequestBody PaymentConfirmationRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        if (idempotencyKey == null) {
+            return doConfirmPayment(request, currentUser);
+        }
+        return idempotencyService.execute(idempotencyKey, currentUser.getId(), "confirm-payment", request,
+                () -> doConfirmPayment(request, currentUser));
+    }
+
+    @GetMapping("/orders/{orderId}/status")
+    public ResponseEntity<OrderStatusDto> getOrderStatus(@PathVariable Long orderId, Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        return ResponseEntity.ok(paymentService.getOrderStatus(orderId, currentUser.getId()));
+    }
+
+    // Pushes the order's status until it is confirmed or its booking failed
+    @GetMapping(value = "/orders/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeOrderStatus(@PathVariable Long orderId, Authentication authentication) {
+        User currentUser = authService.getCurrentUser(authentication);
+        return orderStatusNotifier.subscribe(paymentService.getOrderStatus(orderId, currentUser.getId()));
+    }
+
+    private ResponseEntity<?> doCreatePaymentIntent(PaymentIntentRequest request, User currentUser) {
         try {
-            User currentUser = authService.getCurrentUser(authentication);
             PaymentIntentResponse response = paymentService.createPaymentIntent(request, currentUser.getId());
             return ResponseEntity.ok(response);
-        } catch (StripeException e) {
-            System.err.println("Stripe error: " + e.getMessage());
-            return ResponseEntity.badRequest().body("Stripe error: " + e.getMessage());
+        } catch (PaymentGatewayException e) {
+            // Retryable; the response is not stored against the Idempotency-Key
+            log.warn("Payment gateway unavailable while creating a payment intent: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Payment error: " + e.getMessage());
             e.printStackTrace();
@@ -39,21 +85,17 @@ public class PaymentController {
         }
     }
 
-    @PostMapping("/confirm-payment")
-    public ResponseEntity<String> confirmPayment(
-            @RequestBody PaymentConfirmationRequest request,
-            Authentication authentication) {
+    private ResponseEntity<?> doConfirmPayment(PaymentConfirmationRequest request, User currentUser) {
         try {
-            User currentUser = authService.getCurrentUser(authentication);
-            paymentService.confirmPayment(request, currentUser.getId());
-            return ResponseEntity.ok("Payment confirmed successfully");
-        } catch (StripeException e) {
-            return ResponseEntity.badRequest().body("Payment confirmation failed");
+            // Bookings are made asynchronously; follow the returned order status until it is confirmed
+            OrderStatusDto status = paymentService.confirmPayment(request, currentUser.getId());
+            return ResponseEntity.accepted().body(status);
+        } catch (PaymentGatewayException e) {
+            log.warn("Payment gateway unavailable while confirming a payment: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Payment confirmation error: " + e.getMessage());
             return ResponseEntity.badRequest().body("Payment confirmation failed: " + e.getMessage());
         }
     }
-
-
 }
\ No newline at end of file
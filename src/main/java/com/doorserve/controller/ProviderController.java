@@ -1,14 +1,19 @@
 package com.doorserve.controller;
 
+import com.doorserve.dto.AvailablePartnerDto;
+import com.doorserve.dto.AvailableSlotsDto;
 import com.doorserve.dto.ProviderServiceDetailsDto;
 import com.doorserve.dto.OtherServiceDto;
 import com.doorserve.model.User;
 import com.doorserve.service.ProviderService;
 import com.doorserve.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -43,4 +48,28 @@ public class ProviderController {
         List<OtherServiceDto> services = providerService.getProviderServices(partnerId);
         return ResponseEntity.ok(services);
     }
-}
\ No newline at end of file
+
+    // Partners of a service who are free at a time, e.g. "anyone who can clean on Saturday at 10:00"
+    @GetMapping("/available")
+    public ResponseEntity<List<AvailablePartnerDto>> findAvailablePartners(
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime end,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(providerService.findAvailablePartners(serviceId, date, start, end, limit));
+    }
+
+    @GetMapping("/{partnerId}/slots")
+    public ResponseEntity<AvailableSlotsDto> getAvailableSlots(
+            @PathVariable Long partnerId,
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        AvailableSlotsDto slots = providerService.getAvailableSlots(partnerId, serviceId, from, to);
+        if (slots == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(slots);
+    }
+}
@@ -1,9 +1,13 @@
 package com.doorserve.controller;
 
+import com.doorserve.dto.CursorPageDto;
+import com.doorserve.dto.ServiceCardDto;
 import com.doorserve.dto.ServiceDetailsDto;
+import com.doorserve.dto.SuggestionDto;
 import com.doorserve.model.ServicesCatalog;
 import com.doorserve.service.ServicesCatalogService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +22,14 @@ public class ServiceController {
 
     // Services endpoints
     @GetMapping("/api/services")
+    public ResponseEntity<CursorPageDto<ServiceCardDto>> listServices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(servicesCatalogService.listServices(cursor, limit));
+    }
+
+    // Unpaged full entities, kept for existing clients
+    @GetMapping(value = "/api/services", params = "all=true")
     public ResponseEntity<List<ServicesCatalog>> getAllServices() {
         return ResponseEntity.ok(servicesCatalogService.findAllServices());
     }
@@ -30,8 +42,11 @@ public class ServiceController {
     }
 
     @GetMapping("/api/services/{id}/details")
-    public ResponseEntity<ServiceDetailsDto> getServiceDetails(@PathVariable Long id) {
-        ServiceDetailsDto serviceDetails = servicesCatalogService.getServiceDetails(id);
+    public ResponseEntity<ServiceDetailsDto> getServiceDetails(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ServiceDetailsDto serviceDetails = servicesCatalogService.getServiceDetails(id, page, size);
         if (serviceDetails == null) {
             return ResponseEntity.notFound().build();
         }
@@ -39,6 +54,14 @@ public class ServiceController {
     }
 
     @GetMapping("/api/services/category/{category}")
+    public ResponseEntity<CursorPageDto<ServiceCardDto>> listServicesByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(servicesCatalogService.listServicesByCategory(category, cursor, limit));
+    }
+
+    @GetMapping(value = "/api/services/category/{category}", params = "all=true")
     public ResponseEntity<List<ServicesCatalog>> getServicesByCategory(@PathVariable String category) {
         return ResponseEntity.ok(servicesCatalogService.findServicesByCategory(category));
     }
@@ -52,8 +75,11 @@ public class ServiceController {
     }
 
     @GetMapping("/api/services/by-slug/{slug}/details")
-    public ResponseEntity<ServiceDetailsDto> getServiceDetailsBySlug(@PathVariable String slug) {
-        ServiceDetailsDto serviceDetails = servicesCatalogService.getServiceDetailsBySlug(slug);
+    public ResponseEntity<ServiceDetailsDto> getServiceDetailsBySlug(
+            @PathVariable String slug,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ServiceDetailsDto serviceDetails = servicesCatalogService.getServiceDetailsBySlug(slug, page, size);
         if (serviceDetails == null) {
             return ResponseEntity.notFound().build();
         }
@@ -69,9 +95,16 @@ public class ServiceController {
     }
 
     @GetMapping("/api/services/provider/{providerId}")
+    public ResponseEntity<CursorPageDto<ServiceCardDto>> listServicesByProviderId(
+            @PathVariable Long providerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(servicesCatalogService.listServicesByProvider(providerId, cursor, limit));
+    }
+
+    @GetMapping(value = "/api/services/provider/{providerId}", params = "all=true")
     public ResponseEntity<List<ServicesCatalog>> getServicesByProviderId(@PathVariable Long providerId) {
-        // For now, return all services. This can be implemented later when provider relationship is established
-        return ResponseEntity.ok(servicesCatalogService.findAllServices());
+        return ResponseEntity.ok(servicesCatalogService.findServicesByProviderId(providerId));
     }
 
     @PostMapping("/api/services")
@@ -97,34 +130,34 @@ public class ServiceController {
     }
 
     @GetMapping("/api/services/search")
-    public ResponseEntity<List<ServicesCatalog>> searchServices(@RequestParam String term) {
-        return ResponseEntity.ok(servicesCatalogService.searchServices(term));
+    public ResponseEntity<List<ServicesCatalog>> searchServices(
+            @RequestParam String term,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<ServicesCatalog> results = servicesCatalogService.searchServices(term, fuzzy, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
+    }
+
+    @GetMapping("/api/services/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggestServices(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(servicesCatalogService.suggest(prefix, limit));
     }
 
     @GetMapping("/api/services/featured")
-    public ResponseEntity<List<ServicesCatalog>> getFeaturedServices(@RequestParam(defaultValue = "5") int limit) {
-        List<ServicesCatalog> allServices = servicesCatalogService.findAllServices();
-        // Return first 'limit' services as featured for now
-        List<ServicesCatalog> featuredServices = allServices.stream()
-                .limit(limit)
-                .toList();
-        return ResponseEntity.ok(featuredServices);
+    public ResponseEntity<List<ServicesCatalog>> getFeaturedServices(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(servicesCatalogService.findFeaturedServices(category, limit));
     }
 
     // Debug endpoint to see all categories and their slugs
     @GetMapping("/api/services/debug/categories")
     public ResponseEntity<java.util.Map<String, String>> getDebugCategories() {
-        List<ServicesCatalog> allServices = servicesCatalogService.findAllServices();
-        java.util.Map<String, String> categoryToSlug = new java.util.HashMap<>();
-        
-        allServices.stream()
-                .map(ServicesCatalog::getCategory)
-                .distinct()
-                .forEach(category -> {
-                    String slug = servicesCatalogService.createSlugPublic(category);
-                    categoryToSlug.put(category, slug);
-                });
-        
-        return ResponseEntity.ok(categoryToSlug);
+        return ResponseEntity.ok(servicesCatalogService.getCategorySlugs());
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailablePartnerDto {
+    private Long partnerId;
+    private String partnerName;
+    private Long partnerServiceId;
+    private BigDecimal price;
+    private Integer duration; // in minutes
+    private Double rating;
+    private Integer totalJobs;
+    private Integer experienceYears;
+    private LocalTime startTime; // earliest free start within the requested window
+    private LocalTime endTime;
+}
@@ -0,0 +1,30 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailableSlotsDto {
+    private Long partnerId;
+    private Long serviceId;
+    private Integer duration; // in minutes
+    private List<DaySlotsDto> days;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DaySlotsDto {
+        private LocalDate date;
+        private List<LocalTime> startTimes;
+    }
+}
@@ -0,0 +1,16 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingRequest {
+    private List<BookingRequest> items; // booked together or not at all
+}
@@ -0,0 +1,35 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingResultDto {
+    private boolean booked; // false if any item failed, in which case nothing was booked
+    private List<ItemResultDto> items; // in request order
+
+    public enum ItemStatus {
+        BOOKED,
+        BOOKABLE, // valid, but not booked because another item failed
+        CONFLICT,
+        NOT_FOUND,
+        INVALID
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResultDto {
+        private ItemStatus status;
+        private String message;
+        private BookingDto booking; // set when booked
+    }
+}
@@ -34,4 +34,5 @@ public class BookingDto {
     private LocalTime endTime;
     private BookingStatus status;
     private BigDecimal totalPrice;
+    private Long seriesId;
 }
@@ -0,0 +1,26 @@
+package com.doorserve.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of a booking history listing, bound from query parameters
+ */
+@Data
+@NoArgsConstructor
+public class BookingFilter {
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from; // inclusive, on the booking date
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to; // inclusive, on the booking date
+
+    private Long partnerId;
+    private Long serviceId; // catalog service id
+    private boolean archived; // list bookings from the archive tier instead of recent ones
+}
@@ -0,0 +1,21 @@
+package com.doorserve.dto;
+
+import com.doorserve.model.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSeriesDto {
+    private Long seriesId; // null if nothing was booked
+    private RecurrenceFrequency frequency;
+    private List<BookingDto> bookings;
+    private List<LocalDate> conflicts; // occurrences the partner is busy for
+}
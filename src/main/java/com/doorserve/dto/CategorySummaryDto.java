@@ -0,0 +1,23 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategorySummaryDto {
+    private String name;
+    private String slug;
+    private String description;
+    private String iconUrl;
+    private Long serviceCount;
+    private Long partnerCount; // distinct partners with an available offering in this category
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
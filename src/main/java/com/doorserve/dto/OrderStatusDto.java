@@ -0,0 +1,13 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusDto {
+    private Long orderId;
+    private String status; // pending, paid (bookings in progress), confirmed, booking_failed or failed
+}
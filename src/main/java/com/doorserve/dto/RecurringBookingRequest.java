@@ -0,0 +1,26 @@
+package com.doorserve.dto;
+
+import com.doorserve.model.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecurringBookingRequest {
+    private Long partnerId;
+    private Long serviceId;
+    private Integer duration;
+    private LocalDate firstDate;
+    private LocalTime startTime;
+    private RecurrenceFrequency frequency;
+    private Integer occurrences; // at least one of occurrences and untilDate
+    private LocalDate untilDate; // inclusive
+    private boolean skipConflicts; // book the free occurrences instead of rejecting the whole series
+}
@@ -0,0 +1,24 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The fields a service listing card shows, without timestamps and other entity state
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceCardDto {
+    private Long id;
+    private String name;
+    private String slug;
+    private String category;
+    private String description;
+    private String imageUrl;
+    private Integer baseDuration;
+    private Boolean featured;
+}
@@ -15,11 +15,15 @@ import java.util.List;
 @NoArgsConstructor
 public class ServiceDetailsDto {
     private ServicesCatalog service;
-    private List<PartnerServiceDto> availablePartners;
+    private List<PartnerServiceDto> availablePartners; // one page, best rated first
+    private Integer page;
+    private Integer pageSize;
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
+    private BigDecimal averagePrice;
     private Integer totalPartners;
     private Double averageRating;
+    private Long totalJobs;
 
     @Data
     @Builder
@@ -0,0 +1,18 @@
+package com.doorserve.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDto {
+    private String text;
+    private String type; // SERVICE, CATEGORY or OFFERING
+    private String slug;
+    private Long serviceId;
+    private Long partnerId;
+}
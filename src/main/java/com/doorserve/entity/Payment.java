@@ -4,6 +4,8 @@ import com.doorserve.model.Booking;
 import com.doorserve.model.User;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
@@ -16,11 +18,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "booking_id")
+    // bookings may be partitioned, and then its id alone cannot be referenced (see BookingPartitionService).
+    // Old bookings move to bookings_archive, which leaves this null rather than failing the payment's load.
+    // Hibernate has to look for the row to know, so this is always loaded eagerly
+    @ManyToOne
+    @NotFound(action = NotFoundAction.IGNORE)
+    @JoinColumn(name = "booking_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Booking booking;
 
     @ManyToOne(fetch = FetchType.LAZY)
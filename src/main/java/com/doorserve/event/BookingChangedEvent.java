@@ -0,0 +1,11 @@
+package com.doorserve.event;
+
+import com.doorserve.model.Booking;
+
+/**
+ * Published when a booking is saved or deleted.
+ * @param booking The booking as it was written
+ * @param removed Whether the booking was deleted
+ */
+public record BookingChangedEvent(Booking booking, boolean removed) {
+}
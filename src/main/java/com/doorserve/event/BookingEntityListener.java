@@ -0,0 +1,30 @@
+package com.doorserve.event;
+
+import com.doorserve.model.Booking;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that turns booking writes into {@link BookingChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Booking booking) {
+        eventPublisher.publishEvent(new BookingChangedEvent(booking, false));
+    }
+
+    @PostRemove
+    public void onRemoved(Booking booking) {
+        eventPublisher.publishEvent(new BookingChangedEvent(booking, true));
+    }
+}
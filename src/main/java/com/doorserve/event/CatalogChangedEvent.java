@@ -0,0 +1,23 @@
+package com.doorserve.event;
+
+import com.doorserve.service.CatalogSnapshot;
+
+/**
+ * Published after a new catalog snapshot has been swapped in.
+ * @param snapshot The snapshot that is now current
+ * @param serviceId The service that was saved or deleted, or null when the whole catalog was reloaded
+ */
+public record CatalogChangedEvent(CatalogSnapshot snapshot, Long serviceId) {
+
+    public static CatalogChangedEvent reloaded(CatalogSnapshot snapshot) {
+        return new CatalogChangedEvent(snapshot, null);
+    }
+
+    public static CatalogChangedEvent changed(CatalogSnapshot snapshot, Long serviceId) {
+        return new CatalogChangedEvent(snapshot, serviceId);
+    }
+
+    public boolean isReload() {
+        return serviceId == null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.doorserve.event;
+
+/**
+ * An order reached a new status. Published inside the writing transaction; listeners that must
+ * only see committed state use {@code @TransactionalEventListener}.
+ */
+public record OrderStatusChangedEvent(Long orderId, String status) {
+}
@@ -0,0 +1,12 @@
+package com.doorserve.event;
+
+import com.doorserve.model.PartnerService;
+
+/**
+ * Published when a partner service offering is inserted, updated or deleted.
+ * @param partnerService The offering as it was written
+ * @param removed Whether the offering was deleted
+ * @param previousServiceId Catalog service the offering belonged to before this write, or null if new
+ */
+public record PartnerServiceChangedEvent(PartnerService partnerService, boolean removed, Long previousServiceId) {
+}
@@ -0,0 +1,33 @@
+package com.doorserve.event;
+
+import com.doorserve.model.PartnerService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that turns partner service writes into {@link PartnerServiceChangedEvent}s,
+ * so in-memory indexes stay in sync no matter which code path wrote the row.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerServiceEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(PartnerService partnerService) {
+        eventPublisher.publishEvent(new PartnerServiceChangedEvent(partnerService, false,
+                partnerService.savedServiceCatalogId()));
+    }
+
+    @PostRemove
+    public void onRemoved(PartnerService partnerService) {
+        eventPublisher.publishEvent(new PartnerServiceChangedEvent(partnerService, true,
+                partnerService.savedServiceCatalogId()));
+    }
+}
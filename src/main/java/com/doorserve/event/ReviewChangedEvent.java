@@ -0,0 +1,11 @@
+package com.doorserve.event;
+
+import com.doorserve.model.Review;
+
+/**
+ * Published when a review is saved or deleted.
+ * @param review The review as it was written
+ * @param removed Whether the review was deleted
+ */
+public record ReviewChangedEvent(Review review, boolean removed) {
+}
@@ -0,0 +1,30 @@
+package com.doorserve.event;
+
+import com.doorserve.model.Review;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that turns review writes into {@link ReviewChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Review review) {
+        eventPublisher.publishEvent(new ReviewChangedEvent(review, false));
+    }
+
+    @PostRemove
+    public void onRemoved(Review review) {
+        eventPublisher.publishEvent(new ReviewChangedEvent(review, true));
+    }
+}
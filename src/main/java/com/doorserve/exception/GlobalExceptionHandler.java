@@ -32,12 +32,24 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("Access denied", HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(PaymentGatewayException.class)
+    public ResponseEntity<Object> handlePaymentGatewayException(
+            PaymentGatewayException ex, WebRequest request) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<Object> handleIllegalStateException(
             IllegalStateException ex, WebRequest request) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleIllegalArgumentException(
+            IllegalArgumentException ex, WebRequest request) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGlobalException(
             Exception ex, WebRequest request) {
@@ -5,17 +5,22 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+import com.doorserve.event.BookingEntityListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -29,10 +34,19 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_partner_date", columnList = "partner_id, booking_date, start_time"),
+    // Keyset pagination by (booking_date DESC, id DESC), unfiltered or filtered by one column
+    @Index(name = "idx_bookings_customer_date_id", columnList = "customer_id, booking_date DESC, id DESC"),
+    @Index(name = "idx_bookings_partner_date_id", columnList = "partner_id, booking_date DESC, id DESC"),
+    @Index(name = "idx_bookings_date_id", columnList = "booking_date DESC, id DESC"),
+    @Index(name = "idx_bookings_status_date_id", columnList = "status, booking_date DESC, id DESC")
+})
+@EntityListeners(BookingEntityListener.class)
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -67,6 +81,9 @@ public class Booking {
     @Column(name = "total_price", nullable = false)
     private BigDecimal totalPrice;
 
+    @Column(name = "series_id")
+    private Long seriesId; // set for occurrences of a recurring booking
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
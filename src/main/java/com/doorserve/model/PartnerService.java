@@ -3,21 +3,31 @@ package com.doorserve.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.doorserve.event.PartnerServiceEntityListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @Entity
@@ -26,6 +36,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "partner_services")
+@EntityListeners(PartnerServiceEntityListener.class)
 public class PartnerService {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -65,6 +76,14 @@ public class PartnerService {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Service the row was loaded or last saved with, so a move to another service can be told apart
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long savedServiceCatalogId;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -75,6 +94,14 @@ public class PartnerService {
         updatedAt = LocalDateTime.now();
     }
 
+    // Runs after the entity listeners, which still see the previous service
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void onSaved() {
+        savedServiceCatalogId = getServiceCatalogId();
+    }
+
     // Helper methods for accessing IDs
     public Long getPartnerId() {
         return partner != null ? partner.getId() : null;
@@ -87,4 +114,8 @@ public class PartnerService {
     public ServicesCatalog getServicesCatalog() {
         return serviceCatalog;
     }
+
+    public Long savedServiceCatalogId() {
+        return savedServiceCatalogId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.doorserve.model;
+
+public enum RecurrenceFrequency {
+    WEEKLY,
+    BIWEEKLY
+}
@@ -2,8 +2,13 @@ package com.doorserve.model;
 
 import java.time.LocalDateTime;
 
+import com.doorserve.event.ReviewEntityListener;
+
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -18,6 +23,8 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
 
 @Data
 @Entity
@@ -28,13 +35,17 @@ import lombok.Setter;
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"booking_id", "customer_id"})
 })
+@EntityListeners(ReviewEntityListener.class)
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // bookings may be partitioned, and then its id alone cannot be referenced (see BookingPartitionService).
+    // Old bookings move to bookings_archive, which leaves this null rather than failing the review's load
     @ManyToOne
-    @JoinColumn(name = "booking_id", nullable = false)
+    @NotFound(action = NotFoundAction.IGNORE)
+    @JoinColumn(name = "booking_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Booking booking;
 
     @ManyToOne
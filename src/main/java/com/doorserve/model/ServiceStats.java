@@ -0,0 +1,52 @@
+package com.doorserve.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Rollup of the available partner offerings for one catalog service.
+ * Rows are written by {@link com.doorserve.service.ServiceStatsService}, never by hand.
+ */
+@Data
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "service_stats")
+public class ServiceStats {
+    @Id
+    @Column(name = "service_catalog_id")
+    private Long serviceCatalogId;
+
+    @Column(name = "partner_count", nullable = false)
+    private Long partnerCount = 0L;
+
+    @Column(name = "min_price")
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price")
+    private BigDecimal maxPrice;
+
+    @Column(name = "avg_price")
+    private BigDecimal avgPrice;
+
+    @Column(name = "avg_rating")
+    private Double avgRating;
+
+    @Column(name = "total_jobs", nullable = false)
+    private Long totalJobs = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
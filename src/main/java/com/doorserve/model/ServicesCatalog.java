@@ -3,6 +3,8 @@ package com.doorserve.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.doorserve.util.SlugUtils;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -32,6 +34,9 @@ public class ServicesCatalog {
     @Column(nullable = false)
     private String name;
 
+    @Column(unique = true)
+    private String slug; // URL-friendly name, computed once on write
+
     private String description;
 
     @Column(nullable = false)
@@ -56,6 +61,9 @@ public class ServicesCatalog {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        if (slug == null) {
+            slug = SlugUtils.toSlug(name);
+        }
     }
 
     @PreUpdate
@@ -0,0 +1,148 @@
+package com.doorserve.payment;
+
+import com.doorserve.exception.PaymentGatewayException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and circuit breaker around gateway calls, so a slow or failing gateway can tie up at most
+ * {@code max-concurrent} request threads and is not called at all while it keeps failing.
+ *
+ * The breaker looks at the outcomes of the last {@code window-size} calls. Once at least half of a
+ * full window failed it opens and rejects calls for {@code open-seconds}, then lets a single trial
+ * call through: success closes it, failure opens it again.
+ */
+@Slf4j
+@Component
+public class GatewayGuard {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMillis;
+    private final Duration openDuration;
+    private final double failureRateThreshold;
+
+    // Ring of recent outcomes, true for a failure
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+
+    public GatewayGuard(@Value("${payments.gateway-guard.max-concurrent:20}") int maxConcurrent,
+                        @Value("${payments.gateway-guard.bulkhead-wait-ms:100}") long bulkheadWaitMillis,
+                        @Value("${payments.gateway-guard.window-size:20}") int windowSize,
+                        @Value("${payments.gateway-guard.failure-rate-threshold:0.5}") double failureRateThreshold,
+                        @Value("${payments.gateway-guard.open-seconds:30}") long openSeconds) {
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.bulkheadWaitMillis = bulkheadWaitMillis;
+        this.outcomes = new boolean[windowSize];
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = Duration.ofSeconds(openSeconds);
+    }
+
+    /**
+     * Run a gateway call if the breaker and bulkhead allow it
+     * @param operation Name of the call, for errors and logs
+     * @throws PaymentGatewayException If the call was rejected or failed
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        if (!allowCall()) {
+            throw new PaymentGatewayException("Payment gateway is unavailable, try again later");
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // Not the gateway's fault, so not recorded; release a half-open trial slot for someone else
+            cancelTrial();
+            throw new PaymentGatewayException("Too many payment gateway calls in flight, try again later");
+        }
+        try {
+            T result = call.get();
+            record(false);
+            return result;
+        } catch (PaymentGatewayException e) {
+            record(true);
+            throw e;
+        } catch (RuntimeException e) {
+            record(true);
+            throw new PaymentGatewayException("Payment gateway call " + operation + " failed", e);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private synchronized boolean allowCall() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // A trial call is already in flight
+                return false;
+        }
+    }
+
+    private synchronized void cancelTrial() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.nanoTime() - openDuration.toNanos();
+        }
+    }
+
+    private synchronized void record(boolean failure) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else {
+                log.info("Payment gateway circuit closed");
+                state = State.CLOSED;
+                reset();
+            }
+            return;
+        }
+        if (recorded == outcomes.length) {
+            failures -= outcomes[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        failures += failure ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+        if (state == State.CLOSED && recorded == outcomes.length
+                && failures >= failureRateThreshold * outcomes.length) {
+            open();
+        }
+    }
+
+    private void open() {
+        log.warn("Payment gateway circuit opened for {}s", openDuration.toSeconds());
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        reset();
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.doorserve.payment;
+
+import com.doorserve.exception.PaymentGatewayException;
+
+import java.math.BigDecimal;
+
+/**
+ * A payment provider. The implementation is picked with {@code payments.gateway}: {@code stripe}, or
+ * {@code simulator} to run offline.
+ *
+ * Calls block the caller, so implementations must bound how long they can take and how many can be
+ * in flight; failures of any kind are reported as {@link PaymentGatewayException}.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Start a payment for an order
+     * @param orderId The order being paid for; repeated calls for the same order return the same intent
+     * @param amount Amount in major currency units
+     * @param currency ISO currency code
+     */
+    GatewayIntent createIntent(Long orderId, BigDecimal amount, String currency);
+
+    /**
+     * Look up the current state of a payment
+     */
+    GatewayIntent retrieveIntent(String intentId);
+
+    /**
+     * Cancel a payment the customer abandoned, so it can no longer be completed with its client secret.
+     * A payment that already succeeded or is still processing is left as it is.
+     * @return The payment after the attempt; "canceled" only if it can never be charged
+     */
+    GatewayIntent cancelIntent(String intentId);
+
+    /**
+     * A payment as the gateway sees it
+     * @param status The gateway's status, e.g. "requires_payment_method" or "succeeded"
+     */
+    record GatewayIntent(String id, String clientSecret, String status, String paymentMethod) {
+
+        public boolean succeeded() {
+            return "succeeded".equals(status);
+        }
+
+        public boolean canceled() {
+            return "canceled".equals(status);
+        }
+
+        /**
+         * Whether the customer still has to act, e.g. enter a card or pass a 3-D Secure check.
+         * Unlike "processing", nothing will happen to such a payment unless the customer comes back.
+         */
+        public boolean awaitingCustomer() {
+            return status != null && status.startsWith("requires_") && !"requires_capture".equals(status);
+        }
+    }
+}
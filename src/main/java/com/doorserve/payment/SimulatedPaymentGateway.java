@@ -0,0 +1,97 @@
+package com.doorserve.payment;
+
+import com.doorserve.exception.PaymentGatewayException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a payment gateway, for development and offline load tests. Every payment
+ * succeeds unless a decline is injected; latency, errors and timeouts can be injected too, and calls
+ * go through the same {@link GatewayGuard} as the real gateway so its limits can be exercised.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payments.gateway", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final GatewayGuard guard;
+
+    @Value("${payments.simulator.min-latency-ms:0}")
+    private long minLatencyMillis;
+
+    @Value("${payments.simulator.max-latency-ms:0}")
+    private long maxLatencyMillis;
+
+    @Value("${payments.simulator.error-rate:0}")
+    private double errorRate;
+
+    @Value("${payments.simulator.timeout-rate:0}")
+    private double timeoutRate;
+
+    @Value("${payments.simulator.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${payments.simulator.decline-rate:0}")
+    private double declineRate;
+
+    @Override
+    public GatewayIntent createIntent(Long orderId, BigDecimal amount, String currency) {
+        return guard.call("createIntent", () -> {
+            simulateCall();
+            // Derived from the order, so a retry gets the same intent back like it would from Stripe
+            String intentId = "pi_mock_order_" + orderId;
+            return new GatewayIntent(intentId, intentId + "_secret_mock", "requires_payment_method", null);
+        });
+    }
+
+    @Override
+    public GatewayIntent retrieveIntent(String intentId) {
+        return guard.call("retrieveIntent", () -> {
+            simulateCall();
+            // The customer is assumed to have paid by the time the payment is confirmed
+            if (ThreadLocalRandom.current().nextDouble() < declineRate) {
+                return new GatewayIntent(intentId, null, "requires_payment_method", null);
+            }
+            return new GatewayIntent(intentId, null, "succeeded", "card");
+        });
+    }
+
+    @Override
+    public GatewayIntent cancelIntent(String intentId) {
+        return guard.call("cancelIntent", () -> {
+            simulateCall();
+            return new GatewayIntent(intentId, null, "canceled", null);
+        });
+    }
+
+    private void simulateCall() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < timeoutRate) {
+            // What a read timeout looks like to the caller: the full wait, then an error
+            sleep(timeoutMillis);
+            throw new PaymentGatewayException("Simulated payment gateway timeout");
+        }
+        sleep(maxLatencyMillis > minLatencyMillis ? random.nextLong(minLatencyMillis, maxLatencyMillis + 1) : minLatencyMillis);
+        if (roll < timeoutRate + errorRate) {
+            throw new PaymentGatewayException("Simulated payment gateway error");
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while calling the payment gateway", e);
+        }
+    }
+}
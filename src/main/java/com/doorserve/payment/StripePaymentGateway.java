@@ -0,0 +1,109 @@
+package com.doorserve.payment;
+
+import com.doorserve.exception.PaymentGatewayException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCancelParams;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentRetrieveParams;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Stripe PaymentIntents. The API key and timeouts go on every request instead of the static
+ * {@code Stripe.apiKey}, and calls go through the {@link GatewayGuard}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payments.gateway", havingValue = "stripe")
+public class StripePaymentGateway implements PaymentGateway {
+
+    private static final String PLACEHOLDER_KEY = "sk_test_placeholder";
+
+    private final GatewayGuard guard;
+
+    @Value("${STRIPE_SECRET_KEY:" + PLACEHOLDER_KEY + "}")
+    private String stripeSecretKey;
+
+    @Value("${payments.stripe.connect-timeout-ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${payments.stripe.read-timeout-ms:5000}")
+    private int readTimeoutMillis;
+
+    @Override
+    public GatewayIntent createIntent(Long orderId, BigDecimal amount, String currency) {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amount.multiply(new BigDecimal("100")).longValue()) // Convert to cents
+                .setCurrency(currency.toLowerCase())
+                .putMetadata("order_id", orderId.toString())
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .build())
+                .build();
+        // Stripe replays the first intent for a retried key instead of creating another
+        RequestOptions options = requestOptions().setIdempotencyKey("order-" + orderId + "-intent").build();
+        return guard.call("createIntent", () -> {
+            try {
+                return toIntent(PaymentIntent.create(params, options));
+            } catch (StripeException e) {
+                throw new PaymentGatewayException("Stripe error: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public GatewayIntent retrieveIntent(String intentId) {
+        RequestOptions options = requestOptions().build();
+        return guard.call("retrieveIntent", () -> {
+            try {
+                return toIntent(PaymentIntent.retrieve(intentId, PaymentIntentRetrieveParams.builder().build(), options));
+            } catch (StripeException e) {
+                throw new PaymentGatewayException("Stripe error: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public GatewayIntent cancelIntent(String intentId) {
+        RequestOptions options = requestOptions().build();
+        RequestOptions cancelOptions = requestOptions().setIdempotencyKey(intentId + "-cancel").build();
+        return guard.call("cancelIntent", () -> {
+            try {
+                PaymentIntent intent = PaymentIntent.retrieve(intentId, PaymentIntentRetrieveParams.builder().build(), options);
+                if (!toIntent(intent).awaitingCustomer()) {
+                    return toIntent(intent);
+                }
+                return toIntent(intent.cancel(PaymentIntentCancelParams.builder()
+                        .setCancellationReason(PaymentIntentCancelParams.CancellationReason.ABANDONED)
+                        .build(), cancelOptions));
+            } catch (StripeException e) {
+                throw new PaymentGatewayException("Stripe error: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private RequestOptions.RequestOptionsBuilder requestOptions() {
+        if (stripeSecretKey == null || stripeSecretKey.equals(PLACEHOLDER_KEY) ||
+                stripeSecretKey.equals("sk_test_your_stripe_secret_key_here")) {
+            throw new IllegalStateException(
+                    "Stripe secret key is not properly configured. Please set STRIPE_SECRET_KEY environment variable with your actual Stripe secret key.");
+        }
+        // Retries are left to the client, which holds the Idempotency-Key
+        return RequestOptions.builder()
+                .setApiKey(stripeSecretKey)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setReadTimeout(readTimeoutMillis)
+                .setMaxNetworkRetries(0);
+    }
+
+    private static GatewayIntent toIntent(PaymentIntent intent) {
+        return new GatewayIntent(intent.getId(), intent.getClientSecret(), intent.getStatus(), intent.getPaymentMethod());
+    }
+}
@@ -0,0 +1,31 @@
+package com.doorserve.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transaction-scoped Postgres advisory locks. Held until commit or rollback, on every node, so only
+ * writers of the same key wait for each other.
+ *
+ * Namespaces in use: 1 partner schedule ({@code PartnerScheduleLock}), 2 partition maintenance
+ * ({@code BookingPartitionService}), 3 catalog slugs ({@code CatalogSnapshotService}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class AdvisoryLockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Wait for and take a lock
+     * @param lockClass Namespace of the key, so different kinds of locks never collide
+     * @param key The key within the namespace
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquireXactLock(int lockClass, int key) {
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?, ?)", Integer.class, lockClass, key);
+    }
+}
@@ -1,20 +1,234 @@
 package com.doorserve.repository;
 
+import com.doorserve.dto.BookingDto;
 import com.doorserve.model.Booking;
 import com.doorserve.model.BookingStatus;
-import com.doorserve.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByCustomer(User customer);
-    List<Booking> findByCustomerAndStatus(User customer, BookingStatus status);
-    List<Booking> findByPartner(User partner);
-    List<Booking> findByPartnerAndStatus(User partner, BookingStatus status);
-    List<Booking> findByStatus(BookingStatus status);
+
+    /**
+     * Number of bookings made for a catalog service
+     */
+    interface ServiceBookingCount {
+        Long getServiceId();
+        Long getBookings();
+    }
+
+    /**
+     * Number of bookings made for a partner offering
+     */
+    interface OfferingBookingCount {
+        Long getPartnerServiceId();
+        Long getServiceId();
+        Long getPartnerId();
+        String getTitle();
+        Long getBookings();
+    }
+
+    /**
+     * Time-decayed booking volume of a catalog service. Every booking contributes
+     * {@code exp(decayRate * seconds since epoch)}, so values stay comparable as time passes.
+     */
+    interface ServiceDemand {
+        Long getServiceId();
+        Double getDemand();
+    }
+
+    /**
+     * Time range of an active booking, without the booking's associations
+     */
+    interface BookedInterval {
+        Long getId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+    }
+
+    /**
+     * Time range of an active booking or hold on a known day, tagged with its partner
+     */
+    interface PartnerInterval {
+        Long getPartnerId();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+    }
+
+    /**
+     * Summary of a partner's bookings on one day that changes whenever any of them is written
+     */
+    interface DayFingerprint {
+        Long getBookings();
+        Long getLastId();
+        LocalDateTime getLastModified();
+    }
+
+    /**
+     * A booking read from the archive tier, which has no entity mapping
+     */
+    interface ArchivedBooking {
+        Long getId();
+        Long getCustomerId();
+        String getCustomerName();
+        Long getPartnerId();
+        String getPartnerName();
+        Long getServiceId();
+        String getServiceName();
+        BigDecimal getPrice();
+        Integer getDuration();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        String getStatus();
+        BigDecimal getTotalPrice();
+        Long getSeriesId();
+    }
+
+    // Bookings as DTOs in a single joined select, instead of loading each booking's customer, partner,
+    // offering and catalog service one row at a time. Every filter is optional: null matches anything.
+    String BOOKING_DTO_QUERY = "SELECT new com.doorserve.dto.BookingDto(b.id, c.id, " +
+            "CONCAT(c.firstName, ' ', c.lastName), p.id, CONCAT(p.firstName, ' ', p.lastName), " +
+            "ps.serviceCatalog.id, ps.title, b.price, b.duration, b.bookingDate, b.startTime, b.endTime, " +
+            "b.status, b.totalPrice, b.seriesId) " +
+            "FROM Booking b JOIN b.customer c JOIN b.partner p JOIN b.partnerService ps " +
+            "WHERE (:customerId IS NULL OR c.id = :customerId) " +
+            "AND (:partnerId IS NULL OR p.id = :partnerId) " +
+            "AND (:serviceId IS NULL OR ps.serviceCatalog.id = :serviceId) " +
+            "AND (:status IS NULL OR b.status = :status) " +
+            "AND (:fromDate IS NULL OR b.bookingDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR b.bookingDate <= :toDate) ";
+
+    /**
+     * One keyset page of bookings, newest booking date first
+     * @param afterDate Booking date of the last row of the previous page, or null for the first page
+     * @param afterId Id of the last row of the previous page, or null for the first page
+     * @param pageable Page size only; the offset is always zero
+     */
+    @Query(BOOKING_DTO_QUERY +
+           "AND (:afterDate IS NULL OR b.bookingDate < :afterDate " +
+           "OR (b.bookingDate = :afterDate AND b.id < :afterId)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingDto> findBookingPage(@Param("customerId") Long customerId,
+                                     @Param("partnerId") Long partnerId,
+                                     @Param("serviceId") Long serviceId,
+                                     @Param("status") BookingStatus status,
+                                     @Param("fromDate") LocalDate fromDate,
+                                     @Param("toDate") LocalDate toDate,
+                                     @Param("afterDate") LocalDate afterDate,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    /**
+     * One keyset page of archived bookings, i.e. partitions moved out of the hot table by
+     * {@link com.doorserve.service.BookingPartitionService}. Same filters and order as {@link #findBookingPage}.
+     */
+    @Query(value = "SELECT b.id AS id, c.id AS customerId, CONCAT(c.first_name, ' ', c.last_name) AS customerName, " +
+           "p.id AS partnerId, CONCAT(p.first_name, ' ', p.last_name) AS partnerName, " +
+           "ps.service_catalog_id AS serviceId, ps.title AS serviceName, b.price AS price, b.duration AS duration, " +
+           "b.booking_date AS bookingDate, b.start_time AS startTime, b.end_time AS endTime, b.status AS status, " +
+           "b.total_price AS totalPrice, b.series_id AS seriesId " +
+           "FROM bookings_archive b JOIN users c ON c.id = b.customer_id JOIN users p ON p.id = b.partner_id " +
+           "JOIN partner_services ps ON ps.id = b.partner_service_id " +
+           "WHERE (CAST(:customerId AS BIGINT) IS NULL OR b.customer_id = :customerId) " +
+           "AND (CAST(:partnerId AS BIGINT) IS NULL OR b.partner_id = :partnerId) " +
+           "AND (CAST(:serviceId AS BIGINT) IS NULL OR ps.service_catalog_id = :serviceId) " +
+           "AND (CAST(:status AS VARCHAR) IS NULL OR b.status = :status) " +
+           "AND (CAST(:fromDate AS DATE) IS NULL OR b.booking_date >= :fromDate) " +
+           "AND (CAST(:toDate AS DATE) IS NULL OR b.booking_date <= :toDate) " +
+           "AND (CAST(:afterDate AS DATE) IS NULL OR (b.booking_date, b.id) < (CAST(:afterDate AS DATE), :afterId)) " +
+           "ORDER BY b.booking_date DESC, b.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<ArchivedBooking> findArchivedBookingPage(@Param("customerId") Long customerId,
+                                                  @Param("partnerId") Long partnerId,
+                                                  @Param("serviceId") Long serviceId,
+                                                  @Param("status") String status,
+                                                  @Param("fromDate") LocalDate fromDate,
+                                                  @Param("toDate") LocalDate toDate,
+                                                  @Param("afterDate") LocalDate afterDate,
+                                                  @Param("afterId") Long afterId,
+                                                  @Param("limit") int limit);
+
+    /**
+     * Every matching booking, fetched from the cursor in batches. Must be consumed and closed
+     * inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(BOOKING_DTO_QUERY + "ORDER BY b.bookingDate DESC, b.id DESC")
+    Stream<BookingDto> streamBookings(@Param("customerId") Long customerId,
+                                      @Param("partnerId") Long partnerId,
+                                      @Param("serviceId") Long serviceId,
+                                      @Param("status") BookingStatus status,
+                                      @Param("fromDate") LocalDate fromDate,
+                                      @Param("toDate") LocalDate toDate);
+
     List<Booking> findByPartnerIdAndBookingDateAndStatusNot(Long partnerId, LocalDate bookingDate, BookingStatus status);
+
+    @Query("SELECT b.id AS id, b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.partner.id = :partnerId AND b.bookingDate = :date " +
+           "AND b.status <> com.doorserve.model.BookingStatus.CANCELLED ORDER BY b.startTime")
+    List<BookedInterval> findBookedIntervals(@Param("partnerId") Long partnerId, @Param("date") LocalDate date);
+
+    @Query("SELECT b.id AS id, b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.partner.id = :partnerId AND b.bookingDate BETWEEN :from AND :to " +
+           "AND b.status <> com.doorserve.model.BookingStatus.CANCELLED ORDER BY b.bookingDate, b.startTime")
+    List<BookedInterval> findBookedIntervalsBetween(@Param("partnerId") Long partnerId,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to);
+
+    @Query("SELECT b.partner.id AS partnerId, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.partner.id IN :partnerIds AND b.bookingDate = :date " +
+           "AND b.status <> com.doorserve.model.BookingStatus.CANCELLED")
+    List<PartnerInterval> findBookedIntervalsForPartners(@Param("partnerIds") Collection<Long> partnerIds,
+                                                         @Param("date") LocalDate date);
+
+    @Query("SELECT COUNT(b) AS bookings, MAX(b.id) AS lastId, MAX(COALESCE(b.updatedAt, b.createdAt)) AS lastModified " +
+           "FROM Booking b WHERE b.partner.id = :partnerId AND b.bookingDate = :date")
+    DayFingerprint findDayFingerprint(@Param("partnerId") Long partnerId, @Param("date") LocalDate date);
+
+    @Query("SELECT ps.serviceCatalog.id AS serviceId, COUNT(b) AS bookings FROM Booking b JOIN b.partnerService ps " +
+           "WHERE b.status <> com.doorserve.model.BookingStatus.CANCELLED GROUP BY ps.serviceCatalog.id")
+    List<ServiceBookingCount> countBookingsByService();
+
+    @Query("SELECT ps.id AS partnerServiceId, ps.serviceCatalog.id AS serviceId, ps.partner.id AS partnerId, " +
+           "ps.title AS title, COUNT(b) AS bookings FROM Booking b JOIN b.partnerService ps " +
+           "WHERE b.status <> com.doorserve.model.BookingStatus.CANCELLED " +
+           "GROUP BY ps.id, ps.serviceCatalog.id, ps.partner.id, ps.title ORDER BY COUNT(b) DESC")
+    List<OfferingBookingCount> findMostBookedOfferings(Pageable pageable);
+
+    @Query(value = "SELECT ps.service_catalog_id AS serviceId, " +
+                   "SUM(EXP(:decayRate * CAST(EXTRACT(EPOCH FROM (b.created_at - :epoch)) AS double precision))) AS demand " +
+                   "FROM bookings b JOIN partner_services ps ON ps.id = b.partner_service_id " +
+                   "WHERE b.status <> 'CANCELLED' AND b.created_at >= :since GROUP BY ps.service_catalog_id",
+           nativeQuery = true)
+    List<ServiceDemand> findDecayedDemandByService(@Param("epoch") LocalDateTime epoch,
+                                                   @Param("decayRate") double decayRate,
+                                                   @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT ps.service_catalog_id AS serviceId, " +
+                   "SUM(EXP(:decayRate * CAST(EXTRACT(EPOCH FROM (b.created_at - :epoch)) AS double precision))) AS demand " +
+                   "FROM bookings b JOIN partner_services ps ON ps.id = b.partner_service_id " +
+                   "WHERE ps.service_catalog_id IN (:serviceIds) AND b.status <> 'CANCELLED' AND b.created_at >= :since " +
+                   "GROUP BY ps.service_catalog_id",
+           nativeQuery = true)
+    List<ServiceDemand> findDecayedDemandForServices(@Param("serviceIds") Collection<Long> serviceIds,
+                                                     @Param("epoch") LocalDateTime epoch,
+                                                     @Param("decayRate") double decayRate,
+                                                     @Param("since") LocalDateTime since);
 }
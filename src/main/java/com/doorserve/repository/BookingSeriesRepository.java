@@ -0,0 +1,9 @@
+package com.doorserve.repository;
+
+import com.doorserve.model.BookingSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeries, Long> {
+}
@@ -0,0 +1,48 @@
+package com.doorserve.repository;
+
+import com.doorserve.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claim a key for a new execution: inserts an in-progress record, or takes over one that has expired
+     * @return 1 if the caller now owns the key, 0 if a live record already exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, status, expires_at, created_at) " +
+                   "VALUES (:id, :requestHash, 'IN_PROGRESS', :leaseUntil, :now) " +
+                   "ON CONFLICT (id) DO UPDATE SET request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS', " +
+                   "response_status = NULL, response_content_type = NULL, response_body = NULL, " +
+                   "expires_at = EXCLUDED.expires_at, created_at = EXCLUDED.created_at " +
+                   "WHERE idempotency_keys.expires_at <= :now",
+           nativeQuery = true)
+    int claim(@Param("id") String id,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+           "r.responseContentType = :contentType, r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") String id,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 'IN_PROGRESS'")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
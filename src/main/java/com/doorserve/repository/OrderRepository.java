@@ -1,12 +1,46 @@
 package com.doorserve.repository;
 
 import com.doorserve.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCustomerId(Long customerId);
     List<Order> findByStatus(String status);
+
+    /**
+     * Load an order and lock its row until the transaction ends, so status transitions don't race
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * A pending order and its payment intent, if checkout got that far
+     */
+    interface PendingCheckout {
+        Long getOrderId();
+        String getPaymentIntentId();
+    }
+
+    /**
+     * Pending orders created before a time, in id order after a cursor, so orders that stay pending
+     * don't keep later ones from being reached
+     */
+    @Query("SELECT o.id AS orderId, p.stripePaymentIntentId AS paymentIntentId " +
+           "FROM Order o LEFT JOIN o.payment p " +
+           "WHERE o.status = 'pending' AND o.createdAt < :before AND o.id > :afterId ORDER BY o.id")
+    List<PendingCheckout> findPendingCheckoutsBefore(@Param("before") LocalDateTime before,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
 }
\ No newline at end of file
@@ -3,16 +3,59 @@ package com.doorserve.repository;
 import com.doorserve.model.PartnerService;
 import com.doorserve.model.ServicesCatalog;
 import com.doorserve.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartnerServiceRepository extends JpaRepository<PartnerService, Long> {
+
+    /**
+     * Searchable text of a partner offering, without hydrating partner or catalog entities
+     */
+    interface OfferingText {
+        Long getId();
+        Long getServiceCatalogId();
+        String getTitle();
+        String getDescription();
+    }
+
+    /**
+     * Partner and price aggregates of the available offerings in one category
+     */
+    interface CategoryOfferingStats {
+        String getCategory();
+        Long getPartnerCount();
+        BigDecimal getMinPrice();
+        BigDecimal getMaxPrice();
+    }
+
+    /**
+     * One row of a service's partner listing, read without hydrating the offering's associations
+     */
+    interface PartnerOffering {
+        Long getId();
+        Long getPartnerId();
+        String getPartnerFirstName();
+        String getPartnerLastName();
+        String getPartnerEmail();
+        BigDecimal getPrice();
+        Integer getDuration();
+        String getDescription();
+        Integer getExperienceYears();
+        Double getRating();
+        Integer getTotalJobs();
+        Boolean getAvailable();
+    }
+
     List<PartnerService> findByPartner(User partner);
     List<PartnerService> findByServiceCatalog(ServicesCatalog serviceCatalog);
     List<PartnerService> findByServiceCatalogAndAvailableTrue(ServicesCatalog serviceCatalog);
@@ -20,10 +63,48 @@ public interface PartnerServiceRepository extends JpaRepository<PartnerService,
     
     @Query("SELECT ps FROM PartnerService ps WHERE ps.serviceCatalog.id = :serviceId AND ps.available = true ORDER BY ps.rating DESC, ps.price ASC")
     List<PartnerService> findAvailablePartnersByServiceId(@Param("serviceId") Long serviceId);
+
+    @Query("SELECT ps.id AS id, p.id AS partnerId, p.firstName AS partnerFirstName, p.lastName AS partnerLastName, " +
+           "p.email AS partnerEmail, ps.price AS price, ps.duration AS duration, ps.description AS description, " +
+           "ps.experienceYears AS experienceYears, ps.rating AS rating, ps.totalJobs AS totalJobs, ps.available AS available " +
+           "FROM PartnerService ps JOIN ps.partner p " +
+           "WHERE ps.serviceCatalog.id = :serviceId AND ps.available = true ORDER BY ps.rating DESC, ps.price ASC, ps.id ASC")
+    List<PartnerOffering> findTopAvailableOfferings(@Param("serviceId") Long serviceId, Pageable pageable);
     
     @Query("SELECT ps FROM PartnerService ps WHERE ps.partner.id = :partnerId")
     List<PartnerService> findByPartnerId(@Param("partnerId") Long partnerId);
     
     @Query("SELECT ps FROM PartnerService ps WHERE ps.partner.id = :partnerId AND ps.serviceCatalog.id = :serviceCatalogId")
     Optional<PartnerService> findByPartnerIdAndServiceCatalogId(@Param("partnerId") Long partnerId, @Param("serviceCatalogId") Long serviceCatalogId);
-}
\ No newline at end of file
+
+    @Query("SELECT ps FROM PartnerService ps JOIN FETCH ps.partner JOIN FETCH ps.serviceCatalog " +
+           "WHERE ps.partner.id IN :partnerIds AND ps.serviceCatalog.id IN :serviceCatalogIds")
+    List<PartnerService> findByPartnerIdsAndServiceCatalogIds(@Param("partnerIds") Collection<Long> partnerIds,
+                                                              @Param("serviceCatalogIds") Collection<Long> serviceCatalogIds);
+
+    @Query("SELECT ps.serviceCatalog.id FROM PartnerService ps WHERE ps.partner.id = :partnerId ORDER BY ps.serviceCatalog.id")
+    List<Long> findServiceCatalogIdsByPartnerId(@Param("partnerId") Long partnerId);
+
+    @Query("SELECT ps.serviceCatalog.id FROM PartnerService ps WHERE ps.partner.id = :partnerId " +
+           "AND ps.serviceCatalog.id > :afterId ORDER BY ps.serviceCatalog.id")
+    List<Long> findServiceCatalogIdsByPartnerIdAfter(@Param("partnerId") Long partnerId,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+
+    @Query("SELECT ps.id AS id, ps.serviceCatalog.id AS serviceCatalogId, ps.title AS title, ps.description AS description FROM PartnerService ps")
+    List<OfferingText> findAllOfferingText();
+
+    @Query("SELECT ps.serviceCatalog.category AS category, COUNT(DISTINCT ps.partner.id) AS partnerCount, " +
+           "MIN(ps.price) AS minPrice, MAX(ps.price) AS maxPrice FROM PartnerService ps " +
+           "WHERE ps.available = true GROUP BY ps.serviceCatalog.category")
+    List<CategoryOfferingStats> findCategoryOfferingStats();
+
+    @Query("SELECT MAX(COALESCE(ps.updatedAt, ps.createdAt)) FROM PartnerService ps")
+    LocalDateTime findLastModified();
+
+    // Moves with every insert, update and delete of an offering, on any node
+    @Query(value = "SELECT COUNT(*) || ':' || COALESCE(SUM(EXTRACT(EPOCH FROM COALESCE(updated_at, created_at))), 0) " +
+                   "FROM partner_services",
+           nativeQuery = true)
+    String findFingerprint();
+}
@@ -12,6 +12,16 @@ import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    /**
+     * Review count and rating total of a catalog service
+     */
+    interface ServiceRating {
+        Long getServiceId();
+        Long getReviewCount();
+        Long getRatingSum();
+    }
+
     List<Review> findByCustomer(User customer);
     List<Review> findByPartner(User partner);
     List<Review> findByPartnerOrderByCreatedAtDesc(User partner);
@@ -22,4 +32,12 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     @Query("SELECT COUNT(r) FROM Review r WHERE r.partner.id = :partnerId")
     Long getTotalReviewsForPartner(@Param("partnerId") Long partnerId);
+
+    @Query("SELECT r.partnerService.serviceCatalog.id AS serviceId, COUNT(r) AS reviewCount, SUM(r.rating) AS ratingSum " +
+           "FROM Review r GROUP BY r.partnerService.serviceCatalog.id")
+    List<ServiceRating> findRatingsByService();
+
+    @Query("SELECT r.partnerService.serviceCatalog.id AS serviceId, COUNT(r) AS reviewCount, SUM(r.rating) AS ratingSum " +
+           "FROM Review r WHERE r.partnerService.serviceCatalog.id = :serviceId GROUP BY r.partnerService.serviceCatalog.id")
+    Optional<ServiceRating> findRatingForService(@Param("serviceId") Long serviceId);
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.doorserve.repository;
+
+import com.doorserve.model.ServiceStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ServiceStatsRepository extends JpaRepository<ServiceStats, Long> {
+
+    /**
+     * Recompute the rollup of one service from its available offerings in a single statement.
+     * The aggregate has no GROUP BY, so a service whose last offering went away gets a zeroed row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO service_stats (service_catalog_id, partner_count, min_price, max_price, avg_price, " +
+                   "avg_rating, total_jobs, updated_at) " +
+                   "SELECT :serviceId, COUNT(DISTINCT ps.partner_id), MIN(ps.price), MAX(ps.price), ROUND(AVG(ps.price), 2), AVG(ps.rating), " +
+                   "COALESCE(SUM(ps.total_jobs), 0), NOW() " +
+                   "FROM partner_services ps WHERE ps.service_catalog_id = :serviceId AND ps.available = true " +
+                   "ON CONFLICT (service_catalog_id) DO UPDATE SET partner_count = EXCLUDED.partner_count, " +
+                   "min_price = EXCLUDED.min_price, max_price = EXCLUDED.max_price, avg_price = EXCLUDED.avg_price, " +
+                   "avg_rating = EXCLUDED.avg_rating, total_jobs = EXCLUDED.total_jobs, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int refresh(@Param("serviceId") Long serviceId);
+
+    /**
+     * Recompute every rollup row with one grouped pass over the offerings
+     */
+    @Modifying
+    @Query(value = "INSERT INTO service_stats (service_catalog_id, partner_count, min_price, max_price, avg_price, " +
+                   "avg_rating, total_jobs, updated_at) " +
+                   "SELECT ps.service_catalog_id, COUNT(DISTINCT ps.partner_id), MIN(ps.price), MAX(ps.price), ROUND(AVG(ps.price), 2), " +
+                   "AVG(ps.rating), COALESCE(SUM(ps.total_jobs), 0), NOW() " +
+                   "FROM partner_services ps WHERE ps.available = true GROUP BY ps.service_catalog_id " +
+                   "ON CONFLICT (service_catalog_id) DO UPDATE SET partner_count = EXCLUDED.partner_count, " +
+                   "min_price = EXCLUDED.min_price, max_price = EXCLUDED.max_price, avg_price = EXCLUDED.avg_price, " +
+                   "avg_rating = EXCLUDED.avg_rating, total_jobs = EXCLUDED.total_jobs, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int refreshAll();
+
+    /**
+     * Drop rows of services that no longer have any available offering, after a full refresh
+     */
+    @Modifying
+    @Query(value = "DELETE FROM service_stats st WHERE NOT EXISTS (SELECT 1 FROM partner_services ps " +
+                   "WHERE ps.service_catalog_id = st.service_catalog_id AND ps.available = true)",
+           nativeQuery = true)
+    int deleteOrphans();
+}
@@ -2,6 +2,8 @@ package com.doorserve.repository;
 
 import com.doorserve.model.ServicesCatalog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,26 +16,23 @@ public interface ServicesCatalogRepository extends JpaRepository<ServicesCatalog
      * @return List of services in the given category
      */
     List<ServicesCatalog> findByCategory(String category);
-    
-    /**
-     * Search services by name or description containing the search term
-     * @param name The name search term
-     * @param description The description search term
-     * @return List of matching services
-     */
-    List<ServicesCatalog> findByNameContainingOrDescriptionContaining(String name, String description);
-    
+
     /**
-     * Find distinct categories
-     * @return List of unique category names
+     * Slugs of other services equal to the base slug or numbered variants of it
+     * @param base The slug built from a service name
+     * @param serviceId The service to leave out, or null
      */
-    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT s.category FROM ServicesCatalog s ORDER BY s.category")
-    List<String> findDistinctCategories();
-    
+    @Query("SELECT s.slug FROM ServicesCatalog s " +
+           "WHERE (s.slug = :base OR s.slug LIKE CONCAT(:base, '-%')) " +
+           "AND (:serviceId IS NULL OR s.id <> :serviceId)")
+    List<String> findSlugVariants(@Param("base") String base, @Param("serviceId") Long serviceId);
+
     /**
-     * Count services in a category
-     * @param category The category name
-     * @return Number of services in the category
+     * Cheap summary of the whole table that changes on every insert, update and delete, so other nodes'
+     * writes can be noticed without reloading the catalog
      */
-    long countByCategory(String category);
+    @Query(value = "SELECT COUNT(*) || ':' || COALESCE(SUM(EXTRACT(EPOCH FROM COALESCE(updated_at, created_at))), 0) " +
+                   "FROM services_catalog",
+           nativeQuery = true)
+    String findFingerprint();
 }
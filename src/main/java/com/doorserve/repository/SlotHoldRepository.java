@@ -0,0 +1,67 @@
+package com.doorserve.repository;
+
+import com.doorserve.model.SlotHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SlotHoldRepository extends JpaRepository<SlotHold, Long> {
+
+    /**
+     * Id and deadline of a hold, for scheduling its expiry
+     */
+    interface HoldExpiry {
+        Long getId();
+        LocalDateTime getExpiresAt();
+    }
+
+    List<SlotHold> findByOrderId(Long orderId);
+
+    @Query("SELECT CASE WHEN COUNT(h) > 0 THEN true ELSE false END FROM SlotHold h WHERE h.partnerId = :partnerId AND h.bookingDate = :date " +
+           "AND h.startTime < :endTime AND h.endTime > :startTime AND h.expiresAt > :now " +
+           "AND (:excludeOrderId IS NULL OR h.orderId <> :excludeOrderId)")
+    boolean existsActiveOverlapping(@Param("partnerId") Long partnerId,
+                                    @Param("date") LocalDate date,
+                                    @Param("startTime") LocalTime startTime,
+                                    @Param("endTime") LocalTime endTime,
+                                    @Param("now") LocalDateTime now,
+                                    @Param("excludeOrderId") Long excludeOrderId);
+
+    @Query("SELECT h.partnerId AS partnerId, h.startTime AS startTime, h.endTime AS endTime FROM SlotHold h " +
+           "WHERE h.partnerId IN :partnerIds AND h.bookingDate = :date AND h.expiresAt > :now")
+    List<BookingRepository.PartnerInterval> findActiveIntervalsForPartners(@Param("partnerIds") Collection<Long> partnerIds,
+                                                                           @Param("date") LocalDate date,
+                                                                           @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.id AS id, h.bookingDate AS bookingDate, h.startTime AS startTime, h.endTime AS endTime " +
+           "FROM SlotHold h WHERE h.partnerId = :partnerId AND h.bookingDate BETWEEN :from AND :to " +
+           "AND h.expiresAt > :now ORDER BY h.bookingDate, h.startTime")
+    List<BookingRepository.BookedInterval> findActiveIntervalsBetween(@Param("partnerId") Long partnerId,
+                                                                      @Param("from") LocalDate from,
+                                                                      @Param("to") LocalDate to,
+                                                                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.id AS id, h.expiresAt AS expiresAt FROM SlotHold h WHERE h.expiresAt > :now")
+    List<HoldExpiry> findActive(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.id IN :ids AND h.expiresAt <= :now")
+    int deleteExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,188 @@
+package com.doorserve.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term to document postings with BM25 scoring.
+ * Documents are added, replaced and removed individually, so callers can keep the index in sync
+ * with single-row writes instead of rebuilding it. The term vocabulary is mirrored in a
+ * {@link TrigramVocabulary} so misspelled query terms can be expanded without scanning every term.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> documentLengths = new HashMap<>();
+    private double totalLength;
+    private final TrigramVocabulary vocabulary = new TrigramVocabulary();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a document
+     * @param docId The document id
+     * @param termFrequencies Weighted frequency of each term in the document
+     */
+    public void put(Long docId, Map<String, Float> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+            Map<String, Float> terms = Map.copyOf(termFrequencies);
+            float length = 0;
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), this::newPostings).put(docId, term.getValue());
+                length += term.getValue();
+            }
+            documents.put(docId, terms);
+            documentLengths.put(docId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            vocabulary.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find indexed terms close to a possibly misspelled term
+     * @param term An analyzed query term
+     * @return Nearby terms mapped to their edit distance; empty if the term is too short to correct
+     */
+    public Map<String, Integer> similarTerms(String term) {
+        lock.readLock().lock();
+        try {
+            return vocabulary.matches(term, TrigramVocabulary.autoEdits(term));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Score every document containing at least one of the query terms
+     * @param queryTerms Query terms mapped to a boost applied to their contribution
+     * @return Document ids mapped to their BM25 score
+     */
+    public Map<Long, Double> score(Map<String, Double> queryTerms) {
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Map.of();
+            }
+            double averageLength = totalLength / documentCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Double> queryTerm : queryTerms.entrySet()) {
+                Map<Long, Float> termPostings = postings.get(queryTerm.getKey());
+                if (termPostings == null) {
+                    continue;
+                }
+                int df = termPostings.size();
+                double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+                    double tf = posting.getValue();
+                    double norm = K1 * (1 - B + B * documentLengths.get(posting.getKey()) / averageLength);
+                    double contribution = queryTerm.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                    scores.merge(posting.getKey(), contribution, Double::sum);
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pick one page out of a set of scores without sorting all of them
+     * @param scores Document ids mapped to scores
+     * @param offset Number of top results to skip
+     * @param limit Maximum number of results to return
+     * @return The requested page, best score first
+     */
+    public static SearchHits page(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (scores.isEmpty() || limit <= 0 || offset >= scores.size()) {
+            return new SearchHits(scores.size(), List.of());
+        }
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Math.min(wanted, scores.size()), byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (top.size() < wanted) {
+                top.offer(entry);
+            } else if (byScore.compare(entry, top.peek()) > 0) {
+                top.poll();
+                top.offer(entry);
+            }
+        }
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return new SearchHits(scores.size(), List.copyOf(ranked.subList(offset, ranked.size())));
+    }
+
+    private Map<Long, Float> newPostings(String term) {
+        vocabulary.add(term);
+        return new HashMap<>();
+    }
+
+    private void removeInternal(Long docId) {
+        Map<String, Float> previous = documents.remove(docId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Float> termPostings = postings.get(term);
+            termPostings.remove(docId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(docId);
+    }
+}
@@ -0,0 +1,238 @@
+package com.doorserve.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of suggestion keys where every node caches its own top-K completions.
+ * A lookup walks one node per typed character and returns the cached list, so per-keystroke
+ * cost does not depend on how many suggestions share the prefix.
+ *
+ * Writes are serialized and only touch the nodes on the changed keys' paths. Edges and cached
+ * lists are replaced rather than mutated, so lookups run without locking.
+ */
+public class PrefixIndex {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private int nodeCount = 1;
+
+    public PrefixIndex(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Add or replace a suggestion. It can be reached by typing the start of any word in its text.
+     * @param suggestion The suggestion
+     */
+    public synchronized void put(Suggestion suggestion) {
+        remove(suggestion.key());
+        suggestions.put(suggestion.key(), suggestion);
+        for (String key : keysFor(suggestion.text())) {
+            List<Node> path = walk(key, true);
+            Node last = path.get(path.size() - 1);
+            last.terminals.add(suggestion);
+            refresh(path);
+        }
+    }
+
+    public synchronized void remove(String suggestionKey) {
+        Suggestion previous = suggestions.remove(suggestionKey);
+        if (previous == null) {
+            return;
+        }
+        for (String key : keysFor(previous.text())) {
+            List<Node> path = walk(key, false);
+            if (path.size() != key.length() + 1) {
+                continue;
+            }
+            path.get(path.size() - 1).terminals.removeIf(s -> s.key().equals(suggestionKey));
+            prune(path, key);
+            refresh(path);
+        }
+    }
+
+    public synchronized void clear() {
+        suggestions.clear();
+        root.edges = Edges.EMPTY;
+        root.terminals.clear();
+        root.top = List.of();
+        nodeCount = 1;
+    }
+
+    /**
+     * Top completions for what the user has typed so far
+     * @param prefix The typed text
+     * @param limit Maximum number of completions, capped at the index's K
+     * @return Completions, most popular first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.edges.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Suggestion> top = node.top;
+        return top.size() <= limit ? top : top.subList(0, limit);
+    }
+
+    public synchronized int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * @return Number of trie nodes, as a proxy for the index's memory footprint
+     */
+    public synchronized int nodeCount() {
+        return nodeCount;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(Math.min(text.length(), MAX_KEY_LENGTH));
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length() && normalized.length() < MAX_KEY_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static List<String> keysFor(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                String key = normalized.substring(i);
+                if (!keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private List<Node> walk(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node child = node.edges.child(c);
+            if (child == null) {
+                if (!create) {
+                    return path;
+                }
+                child = new Node();
+                node.edges = node.edges.with(c, child);
+                nodeCount++;
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void prune(List<Node> path, String key) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (!node.terminals.isEmpty() || node.edges.labels.length > 0) {
+                return;
+            }
+            Node parent = path.get(i - 1);
+            parent.edges = parent.edges.without(key.charAt(i - 1));
+            nodeCount--;
+        }
+    }
+
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Map<String, Suggestion> candidates = new LinkedHashMap<>();
+            node.terminals.forEach(s -> candidates.putIfAbsent(s.key(), s));
+            for (Node child : node.edges.children) {
+                child.top.forEach(s -> candidates.putIfAbsent(s.key(), s));
+            }
+            node.top = candidates.values().stream()
+                    .sorted(Suggestion.BY_POPULARITY)
+                    .limit(topK)
+                    .toList();
+        }
+    }
+
+    private static final class Node {
+        private volatile Edges edges = Edges.EMPTY;
+        private volatile List<Suggestion> top = List.of();
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+    }
+
+    /**
+     * Sorted child labels with their nodes, replaced as a unit on every change.
+     */
+    private static final class Edges {
+        private static final Edges EMPTY = new Edges(new char[0], new Node[0]);
+
+        private final char[] labels;
+        private final Node[] children;
+
+        private Edges(char[] labels, Node[] children) {
+            this.labels = labels;
+            this.children = children;
+        }
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Edges with(char label, Node child) {
+            int insertAt = -(Arrays.binarySearch(labels, label) + 1);
+            char[] nextLabels = new char[labels.length + 1];
+            Node[] nextChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, nextLabels, 0, insertAt);
+            System.arraycopy(children, 0, nextChildren, 0, insertAt);
+            nextLabels[insertAt] = label;
+            nextChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, nextLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, nextChildren, insertAt + 1, children.length - insertAt);
+            return new Edges(nextLabels, nextChildren);
+        }
+
+        Edges without(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return this;
+            }
+            char[] nextLabels = new char[labels.length - 1];
+            Node[] nextChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, nextLabels, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            System.arraycopy(labels, index + 1, nextLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, nextChildren, index, children.length - index - 1);
+            return new Edges(nextLabels, nextChildren);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.doorserve.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked document ids.
+ * @param total Number of matching documents across all pages
+ * @param ids Document ids on this page, best match first
+ */
+public record SearchHits(int total, List<Long> ids) {
+
+    public static SearchHits empty() {
+        return new SearchHits(0, List.of());
+    }
+}
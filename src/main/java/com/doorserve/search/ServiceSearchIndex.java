@@ -0,0 +1,147 @@
+package com.doorserve.search;
+
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.event.PartnerServiceChangedEvent;
+import com.doorserve.model.PartnerService;
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.repository.PartnerServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text index over the services catalog.
+ * Each catalog service is one document made of its name, category and description plus the
+ * titles and descriptions of the partner offerings for it. Fields are weighted so a hit in
+ * the name outranks a hit in a partner's blurb.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float OFFERING_WEIGHT = 0.5f;
+
+    private final PartnerServiceRepository partnerServiceRepository;
+
+    // Score multiplier per edit for typo-corrected terms, so exact matches always rank first
+    @Value("${search.fuzzy.edit-penalty:0.5}")
+    private double fuzzyEditPenalty;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, ServicesCatalog> services = new HashMap<>();
+    private final Map<Long, Map<Long, String>> offeringTextByService = new HashMap<>();
+    private final Map<Long, Long> serviceIdByOffering = new HashMap<>();
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            reload(event.snapshot().getServices());
+            return;
+        }
+        event.snapshot().findById(event.serviceId()).ifPresentOrElse(
+                service -> {
+                    services.put(service.getId(), service);
+                    reindex(service.getId());
+                },
+                () -> {
+                    services.remove(event.serviceId());
+                    index.remove(event.serviceId());
+                });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPartnerServiceChanged(PartnerServiceChangedEvent event) {
+        PartnerService offering = event.partnerService();
+        Long previousServiceId = serviceIdByOffering.remove(offering.getId());
+        if (previousServiceId != null) {
+            Map<Long, String> texts = offeringTextByService.get(previousServiceId);
+            if (texts != null) {
+                texts.remove(offering.getId());
+            }
+        }
+        if (!event.removed() && offering.getServiceCatalogId() != null) {
+            putOffering(offering.getId(), offering.getServiceCatalogId(), offering.getTitle(), offering.getDescription());
+            reindex(offering.getServiceCatalogId());
+        }
+        if (previousServiceId != null && !previousServiceId.equals(offering.getServiceCatalogId())) {
+            reindex(previousServiceId);
+        }
+    }
+
+    /**
+     * Rank catalog services against a free-text query
+     * @param query The user's search text
+     * @param fuzzy Whether to also match terms within one or two typos of the query terms
+     * @param offset Number of top results to skip
+     * @param limit Maximum number of results to return
+     * @return One page of service ids, best match first
+     */
+    public SearchHits search(String query, boolean fuzzy, int offset, int limit) {
+        Map<String, Double> queryTerms = new LinkedHashMap<>();
+        for (String term : TextAnalyzer.analyze(query)) {
+            queryTerms.put(term, 1.0);
+            if (fuzzy) {
+                index.similarTerms(term).forEach((similar, edits) ->
+                        queryTerms.merge(similar, Math.pow(fuzzyEditPenalty, edits), Math::max));
+            }
+        }
+        if (queryTerms.isEmpty()) {
+            return SearchHits.empty();
+        }
+        return InvertedIndex.page(index.score(queryTerms), offset, limit);
+    }
+
+    private void reload(List<ServicesCatalog> catalog) {
+        index.clear();
+        services.clear();
+        offeringTextByService.clear();
+        serviceIdByOffering.clear();
+
+        catalog.forEach(service -> services.put(service.getId(), service));
+        for (PartnerServiceRepository.OfferingText offering : partnerServiceRepository.findAllOfferingText()) {
+            putOffering(offering.getId(), offering.getServiceCatalogId(), offering.getTitle(), offering.getDescription());
+        }
+        services.keySet().forEach(this::reindex);
+        log.info("Search index rebuilt with {} services and {} partner offerings",
+                index.size(), serviceIdByOffering.size());
+    }
+
+    private void putOffering(Long offeringId, Long serviceId, String title, String description) {
+        serviceIdByOffering.put(offeringId, serviceId);
+        offeringTextByService.computeIfAbsent(serviceId, id -> new HashMap<>())
+                .put(offeringId, (title != null ? title : "") + " " + (description != null ? description : ""));
+    }
+
+    private void reindex(Long serviceId) {
+        ServicesCatalog service = services.get(serviceId);
+        if (service == null) {
+            return;
+        }
+        Map<String, Float> termFrequencies = new HashMap<>();
+        addField(termFrequencies, service.getName(), NAME_WEIGHT);
+        addField(termFrequencies, service.getCategory(), CATEGORY_WEIGHT);
+        addField(termFrequencies, service.getDescription(), DESCRIPTION_WEIGHT);
+        offeringTextByService.getOrDefault(serviceId, Map.of())
+                .values()
+                .forEach(text -> addField(termFrequencies, text, OFFERING_WEIGHT));
+        index.put(serviceId, termFrequencies);
+    }
+
+    private static void addField(Map<String, Float> termFrequencies, String text, float weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            termFrequencies.merge(term, weight, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.doorserve.search;
+
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.event.PartnerServiceChangedEvent;
+import com.doorserve.model.PartnerService;
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.repository.BookingRepository;
+import com.doorserve.service.CatalogSnapshot;
+import com.doorserve.util.SlugUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead suggestions for service names, categories and the most booked partner offerings,
+ * ranked by booking count. Catalog and offering changes are applied as they happen; booking counts,
+ * including bookings made on other nodes, are re-read on a schedule and only changed entries re-ranked.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_OFFERING_SUGGESTIONS = 1000;
+
+    private static final String SERVICE = "SERVICE";
+    private static final String CATEGORY = "CATEGORY";
+    private static final String OFFERING = "OFFERING";
+
+    private final BookingRepository bookingRepository;
+
+    private final PrefixIndex index = new PrefixIndex(MAX_SUGGESTIONS);
+    private final Map<Long, Long> bookingsByService = new HashMap<>();
+    private final Map<Long, String> categoryByService = new HashMap<>();
+    private final Map<Long, Suggestion> offerings = new HashMap<>();
+    private CatalogSnapshot snapshot;
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return index.complete(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot snapshot = event.snapshot();
+        this.snapshot = snapshot;
+        if (event.isReload()) {
+            reload(snapshot);
+            return;
+        }
+        Long serviceId = event.serviceId();
+        String previousCategory = categoryByService.remove(serviceId);
+        snapshot.findById(serviceId).ifPresentOrElse(
+                service -> {
+                    categoryByService.put(serviceId, service.getCategory());
+                    index.put(serviceSuggestion(service));
+                    putCategory(snapshot, service.getCategory());
+                },
+                () -> index.remove(SERVICE + ":" + serviceId));
+        if (previousCategory != null) {
+            putCategory(snapshot, previousCategory);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPartnerServiceChanged(PartnerServiceChangedEvent event) {
+        PartnerService offering = event.partnerService();
+        Suggestion previous = offerings.get(offering.getId());
+        if (previous == null) {
+            return;
+        }
+        if (event.removed() || offering.getTitle() == null) {
+            offerings.remove(offering.getId());
+            index.remove(previous.key());
+            return;
+        }
+        Suggestion updated = new Suggestion(previous.key(), offering.getTitle(), OFFERING, previous.slug(),
+                previous.serviceId(), previous.partnerId(), previous.popularity());
+        offerings.put(offering.getId(), updated);
+        index.put(updated);
+    }
+
+    /**
+     * Re-rank by current booking counts. Only suggestions whose count moved are re-inserted.
+     */
+    @Scheduled(fixedDelayString = "${search.popularity-refresh-ms:60000}")
+    public synchronized void refreshPopularity() {
+        if (snapshot == null) {
+            return; // not loaded yet
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        bookingRepository.countBookingsByService()
+                .forEach(count -> counts.put(count.getServiceId(), count.getBookings()));
+        List<ServicesCatalog> changed = snapshot.getServices().stream()
+                .filter(service -> !bookingsByService.getOrDefault(service.getId(), 0L)
+                        .equals(counts.getOrDefault(service.getId(), 0L)))
+                .toList();
+        bookingsByService.clear();
+        bookingsByService.putAll(counts);
+        changed.forEach(service -> index.put(serviceSuggestion(service)));
+        changed.stream()
+                .map(ServicesCatalog::getCategory)
+                .distinct()
+                .forEach(category -> putCategory(snapshot, category));
+        putOfferings(snapshot);
+    }
+
+    private void reload(CatalogSnapshot snapshot) {
+        index.clear();
+        bookingsByService.clear();
+        categoryByService.clear();
+        offerings.clear();
+
+        bookingRepository.countBookingsByService()
+                .forEach(count -> bookingsByService.put(count.getServiceId(), count.getBookings()));
+        for (ServicesCatalog service : snapshot.getServices()) {
+            categoryByService.put(service.getId(), service.getCategory());
+            index.put(serviceSuggestion(service));
+        }
+        snapshot.getCategorySlugs().keySet().forEach(category -> putCategory(snapshot, category));
+        putOfferings(snapshot);
+        log.info("Suggest index rebuilt with {} suggestions in {} trie nodes", index.size(), index.nodeCount());
+    }
+
+    // The most booked offerings; ones that dropped out of the top are removed
+    private void putOfferings(CatalogSnapshot snapshot) {
+        Map<Long, Suggestion> top = new HashMap<>();
+        for (BookingRepository.OfferingBookingCount count
+                : bookingRepository.findMostBookedOfferings(PageRequest.of(0, MAX_OFFERING_SUGGESTIONS))) {
+            if (count.getTitle() == null) {
+                continue;
+            }
+            String slug = snapshot.findById(count.getServiceId()).map(ServicesCatalog::getSlug).orElse(null);
+            top.put(count.getPartnerServiceId(), new Suggestion(OFFERING + ":" + count.getPartnerServiceId(),
+                    count.getTitle(), OFFERING, slug, count.getServiceId(), count.getPartnerId(), count.getBookings()));
+        }
+        offerings.forEach((id, previous) -> {
+            if (!top.containsKey(id)) {
+                index.remove(previous.key());
+            }
+        });
+        top.forEach((id, suggestion) -> {
+            if (!suggestion.equals(offerings.get(id))) {
+                index.put(suggestion);
+            }
+        });
+        offerings.clear();
+        offerings.putAll(top);
+    }
+
+    private Suggestion serviceSuggestion(ServicesCatalog service) {
+        return new Suggestion(SERVICE + ":" + service.getId(), service.getName(), SERVICE, service.getSlug(),
+                service.getId(), null, bookingsByService.getOrDefault(service.getId(), 0L));
+    }
+
+    private void putCategory(CatalogSnapshot snapshot, String category) {
+        List<ServicesCatalog> services = snapshot.findByCategory(category);
+        String key = CATEGORY + ":" + category;
+        if (services.isEmpty()) {
+            index.remove(key);
+            return;
+        }
+        long bookings = services.stream()
+                .mapToLong(service -> bookingsByService.getOrDefault(service.getId(), 0L))
+                .sum();
+        index.put(new Suggestion(key, category, CATEGORY, SlugUtils.toSlug(category), null, null, bookings));
+    }
+}
@@ -0,0 +1,22 @@
+package com.doorserve.search;
+
+import java.util.Comparator;
+
+/**
+ * A typeahead completion.
+ * @param key Unique key of the suggestion, e.g. "SERVICE:12"
+ * @param text Text shown to the user
+ * @param type SERVICE, CATEGORY or OFFERING
+ * @param slug Slug of the service or category the suggestion links to
+ * @param serviceId Catalog service the suggestion links to, if any
+ * @param partnerId Partner offering the suggestion links to, if any
+ * @param popularity Ranking weight, higher first
+ */
+public record Suggestion(String key, String text, String type, String slug,
+                         Long serviceId, Long partnerId, long popularity) {
+
+    static final Comparator<Suggestion> BY_POPULARITY = Comparator
+            .comparingLong(Suggestion::popularity).reversed()
+            .thenComparing(Suggestion::text)
+            .thenComparing(Suggestion::key);
+}
@@ -0,0 +1,207 @@
+package com.doorserve.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over a term vocabulary for typo-tolerant lookups.
+ * Candidates are found through shared trigrams and then verified with a bounded edit distance,
+ * so only terms that could possibly be within reach are ever compared.
+ *
+ * Not thread-safe; {@link InvertedIndex} guards it with its own lock.
+ */
+class TrigramVocabulary {
+
+    private static final char PAD = '\u0000';
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private int[] termLengths = new int[16];
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<String, IntBag> termIdsByTrigram = new HashMap<>();
+
+    // Per-thread shared-trigram counters, indexed by term id; lookups run concurrently under a read lock
+    private final ThreadLocal<int[]> counters = ThreadLocal.withInitial(() -> new int[0]);
+
+    void add(String term) {
+        if (termIds.containsKey(term)) {
+            return;
+        }
+        int id;
+        if (freeIds.isEmpty()) {
+            id = terms.size();
+            terms.add(term);
+        } else {
+            id = freeIds.pop();
+            terms.set(id, term);
+        }
+        termIds.put(term, id);
+        if (id >= termLengths.length) {
+            termLengths = Arrays.copyOf(termLengths, Math.max(id + 1, termLengths.length * 2));
+        }
+        termLengths[id] = term.length();
+        for (String trigram : trigrams(term)) {
+            termIdsByTrigram.computeIfAbsent(trigram, key -> new IntBag()).add(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = termIds.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (String trigram : trigrams(term)) {
+            IntBag ids = termIdsByTrigram.get(trigram);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                termIdsByTrigram.remove(trigram);
+            }
+        }
+        terms.set(id, null);
+        freeIds.push(id);
+    }
+
+    void clear() {
+        termIds.clear();
+        terms.clear();
+        freeIds.clear();
+        termIdsByTrigram.clear();
+        termLengths = new int[16];
+    }
+
+    /**
+     * Find vocabulary terms within the given edit distance of a term, excluding the term itself
+     * @param term The (possibly misspelled) term
+     * @param maxEdits Maximum Levenshtein distance
+     * @return Matching terms mapped to their distance
+     */
+    Map<String, Integer> matches(String term, int maxEdits) {
+        if (maxEdits <= 0) {
+            return Map.of();
+        }
+        int[] shared = counters.get();
+        if (shared.length < terms.size()) {
+            shared = new int[terms.size()];
+            counters.set(shared);
+        }
+
+        // Length filter first: it only reads the packed lengths array, not the candidate strings
+        int minLength = term.length() - maxEdits;
+        int maxLength = term.length() + maxEdits;
+        IntBag touched = new IntBag();
+        for (String trigram : trigrams(term)) {
+            IntBag ids = termIdsByTrigram.get(trigram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                int length = termLengths[id];
+                if (length >= minLength && length <= maxLength && shared[id]++ == 0) {
+                    touched.add(id);
+                }
+            }
+        }
+
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        for (int i = 0; i < touched.size; i++) {
+            int id = touched.values[i];
+            int count = shared[id];
+            shared[id] = 0;
+            // Each edit destroys at most three padded trigrams
+            int required = Math.max(term.length(), termLengths[id]) + 2 - 3 * maxEdits;
+            if (count < required) {
+                continue;
+            }
+            String other = terms.get(id);
+            if (other.equals(term)) {
+                continue;
+            }
+            int distance = boundedDistance(term, other, maxEdits);
+            if (distance <= maxEdits) {
+                matches.put(other, distance);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Number of edits allowed for a term of the given length: short words must match exactly,
+     * medium words may have one typo, long words two.
+     */
+    static int autoEdits(String term) {
+        if (term.length() < 3) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "" + PAD + PAD + term + PAD + PAD;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance that gives up once every path exceeds the bound
+     * @return The distance, or {@code bound + 1} if it is larger than the bound
+     */
+    static int boundedDistance(String a, String b, int bound) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    /**
+     * Unordered growable set of ints, cheaper than boxing term ids into collections.
+     */
+    private static final class IntBag {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
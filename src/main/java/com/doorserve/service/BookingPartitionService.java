@@ -0,0 +1,303 @@
+package com.doorserve.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Upkeep of the monthly booking_date partitions of {@code bookings} and {@code order_items}.
+ * Partitions are created ahead of time so inserts always find one, and bookings partitions older than
+ * the hot window are moved to {@code bookings_archive}. Hot-path queries then only touch recent months,
+ * and old bookings are read only by explicit history requests. Order items stay in their table: they are
+ * read through their order, which is never archived.
+ *
+ * Plain tables are converted in place when {@code partitions.convert-tables} is set, see
+ * {@link #convertToPartitioned}; otherwise they are left alone.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingPartitionService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("bookings", "order_items");
+    private static final List<String> ARCHIVED_TABLES = List.of("bookings");
+    private static final String ARCHIVE_SUFFIX = "_archive";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(".+_p(\\d{4})_(\\d{2})");
+
+    // allocationSize of the entities' id sequence generators
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    // Advisory lock namespace; see AdvisoryLockRepository
+    private static final int PARTITION_MAINTENANCE_LOCK = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${partitions.months-ahead:12}")
+    private int monthsAhead;
+
+    @Value("${partitions.hot-months:24}")
+    private int hotMonths;
+
+    @Value("${partitions.convert-tables:false}")
+    private boolean convertTables;
+
+    private record ForeignKey(String table, String name, String definition) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        for (String table : PARTITIONED_TABLES) {
+            if (!isPartitioned(table) && !(convertTables && convertToPartitioned(table))) {
+                continue;
+            }
+            createFuturePartitions(table);
+            if (!ARCHIVED_TABLES.contains(table)) {
+                continue;
+            }
+            try {
+                archiveOldPartitions(table);
+            } catch (DataAccessException e) {
+                log.error("Archiving old partitions of {} failed", table, e);
+            }
+        }
+        if (isPartitioned("bookings")) {
+            verifyPruning();
+        }
+    }
+
+    /**
+     * Whether a table has an archive tier to read old rows from
+     */
+    public boolean hasArchive(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table + ARCHIVE_SUFFIX);
+    }
+
+    private boolean isPartitioned(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table);
+    }
+
+    /**
+     * Convert a plain table into one range-partitioned by month on booking_date, in a single transaction
+     * that locks the table. Nodes starting together convert it once.
+     *
+     * A partitioned table's unique keys must include booking_date, so the primary key becomes
+     * (id, booking_date) and no foreign key can reference the table's id alone any more: foreign keys
+     * pointing at it (payments.booking_id and reviews.booking_id) are dropped for good and logged. The
+     * table's own foreign keys and indexes, which {@code LIKE} does not copy, are re-created with their
+     * original names and definitions. The id keeps its sequence; an identity column's sequence cannot
+     * outlive the column, so it is replaced by a plain sequence continuing where it left off.
+     *
+     * @return Whether the table is partitioned now
+     */
+    private boolean convertToPartitioned(String table) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?, hashtext(?))",
+                    Integer.class, PARTITION_MAINTENANCE_LOCK, table);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, table))) {
+                return false; // not created yet
+            }
+            if (isPartitioned(table)) {
+                return true; // converted by another node meanwhile
+            }
+            jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+
+            for (ForeignKey foreignKey : foreignKeys("confrelid", table)) {
+                jdbcTemplate.execute("ALTER TABLE " + quote(foreignKey.table()) + " DROP CONSTRAINT " + quote(foreignKey.name()));
+                log.warn("Dropped foreign key {} on {} ({}): {} cannot be referenced once partitioned",
+                        foreignKey.name(), foreignKey.table(), foreignKey.definition(), table);
+            }
+            List<ForeignKey> ownForeignKeys = foreignKeys("conrelid", table);
+            // Definitions name the table as it is now, so they can be replayed on its replacement
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = to_regclass(?) AND NOT indisunique",
+                    String.class, table);
+            String sequence = detachIdSequence(table);
+
+            String unpartitioned = table + "_unpartitioned";
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + unpartitioned);
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (booking_date)",
+                    table, unpartitioned));
+            if (table.equals("order_items")) {
+                // Items without a date, e.g. from the cart
+                jdbcTemplate.execute("CREATE TABLE order_items_undated PARTITION OF order_items DEFAULT");
+            }
+            List<LocalDate> range = jdbcTemplate.queryForObject(
+                    "SELECT MIN(booking_date), MAX(booking_date) FROM " + unpartitioned,
+                    (rs, row) -> Arrays.asList(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class)));
+            int partitions = 0;
+            if (range.get(0) != null) {
+                for (YearMonth month = YearMonth.from(range.get(0)); !month.isAfter(YearMonth.from(range.get(1)));
+                        month = month.plusMonths(1)) {
+                    jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                            partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1)));
+                    partitions++;
+                }
+            }
+            int rows = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + unpartitioned);
+            jdbcTemplate.execute("DROP TABLE " + unpartitioned);
+
+            // Added after the drop: the old table's key and indexes still held the names
+            jdbcTemplate.execute("ALTER TABLE " + table + (table.equals("bookings")
+                    ? " ADD PRIMARY KEY (id, booking_date)"
+                    : " ADD UNIQUE (id, booking_date)"));
+            indexes.forEach(jdbcTemplate::execute);
+            for (ForeignKey foreignKey : ownForeignKeys) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + quote(foreignKey.name())
+                        + " " + foreignKey.definition());
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+
+            log.info("Converted {} to monthly partitions: {} rows in {} partitions, {} indexes and {} foreign keys re-created",
+                    table, rows, partitions, indexes.size(), ownForeignKeys.size());
+            return true;
+        }));
+    }
+
+    /**
+     * @param side "conrelid" for the table's own foreign keys, "confrelid" for those referencing it
+     */
+    private List<ForeignKey> foreignKeys(String side, String table) {
+        return jdbcTemplate.query(
+                "SELECT conrelid::regclass::text, conname, pg_get_constraintdef(oid) FROM pg_constraint " +
+                "WHERE contype = 'f' AND " + side + " = to_regclass(?) ORDER BY conname",
+                (rs, row) -> new ForeignKey(rs.getString(1), rs.getString(2), rs.getString(3)), table);
+    }
+
+    /**
+     * Make sure the id sequence survives dropping the table
+     * @return The sequence's name
+     */
+    private String detachIdSequence(String table) {
+        String identity = jdbcTemplate.queryForObject(
+                "SELECT attidentity::text FROM pg_attribute WHERE attrelid = to_regclass(?) AND attname = 'id'",
+                String.class, table);
+        String owned = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        String sequence = table + "_id_seq";
+        if (identity != null && !identity.isEmpty()) {
+            Long last = jdbcTemplate.queryForObject(String.format(
+                    "SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM %s), (SELECT last_value FROM %s))",
+                    table, owned), Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+            jdbcTemplate.execute("CREATE SEQUENCE " + sequence + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+            jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, last);
+            return sequence;
+        }
+        if (owned != null) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + owned + " OWNED BY NONE");
+            return owned;
+        }
+        // A sequence Hibernate created on its own is not tied to the table
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+        return sequence;
+    }
+
+    private static String quote(String identifier) {
+        if (identifier.startsWith("\"")) {
+            return identifier; // regclass text is already quoted where needed
+        }
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    // Each partition in its own statement, so one bad month (e.g. rows stuck in a default partition) does not stop the rest
+    private void createFuturePartitions(String table) {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                        partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1)));
+            } catch (DataAccessException e) {
+                log.error("Could not create partition {}", partitionName(table, month), e);
+            }
+        }
+    }
+
+    private void archiveOldPartitions(String table) {
+        YearMonth firstHotMonth = YearMonth.now().minusMonths(hotMonths);
+        String archive = table + ARCHIVE_SUFFIX;
+        transactionTemplate.executeWithoutResult(status -> {
+            // Several nodes may run this at once; one of them does the work
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, hashtext(?))",
+                    Boolean.class, PARTITION_MAINTENANCE_LOCK, table);
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            // The archive copies the table's columns as they are now; later column changes must go to both
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s (LIKE %s INCLUDING DEFAULTS) PARTITION BY RANGE (booking_date)",
+                    archive, table));
+            for (String partition : partitionsOf(table)) {
+                Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (!month.isBefore(firstHotMonth)) {
+                    continue;
+                }
+                jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", table, partition));
+                jdbcTemplate.execute(String.format(
+                        "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                        archive, partition, month.atDay(1), month.plusMonths(1).atDay(1)));
+                log.info("Moved partition {} to {}", partition, archive);
+            }
+        });
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, table);
+    }
+
+    /**
+     * Log whether the planner prunes partitions for the hot-path query shapes: a partner's day and a
+     * week-long date range should each touch at most two monthly partitions, not all of them.
+     */
+    private void verifyPruning() {
+        LocalDate today = LocalDate.now();
+        int partitions = partitionsOf("bookings").size();
+        checkPlan("a partner's day", String.format(
+                "SELECT id FROM bookings WHERE partner_id = 0 AND booking_date = DATE '%s'", today), 1, partitions);
+        checkPlan("a date range", String.format(
+                "SELECT id FROM bookings WHERE booking_date BETWEEN DATE '%s' AND DATE '%s'",
+                today, today.plusDays(6)), 2, partitions);
+    }
+
+    private void checkPlan(String shape, String query, int expected, int partitions) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+        int scanned = plan.split("\"Relation Name\"", -1).length - 1;
+        if (scanned <= expected) {
+            log.info("Partition pruning for {}: {} of {} bookings partitions scanned", shape, scanned, partitions);
+        } else {
+            log.warn("No partition pruning for {}: {} of {} bookings partitions scanned", shape, scanned, partitions);
+        }
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(MONTH_SUFFIX);
+    }
+}
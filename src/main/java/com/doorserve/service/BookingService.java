@@ -1,33 +1,65 @@
 package com.doorserve.service;
 
+import com.doorserve.availability.PartnerAvailabilityIndex;
+import com.doorserve.availability.PartnerScheduleLock;
+import com.doorserve.availability.SlotHoldService;
+import com.doorserve.dto.BatchBookingRequest;
+import com.doorserve.dto.BatchBookingResultDto;
 import com.doorserve.dto.BookingDto;
+import com.doorserve.dto.BookingFilter;
 import com.doorserve.dto.BookingRequest;
+import com.doorserve.dto.BookingSeriesDto;
+import com.doorserve.dto.CursorPageDto;
+import com.doorserve.dto.RecurringBookingRequest;
 import com.doorserve.exception.ResourceNotFoundException;
 import com.doorserve.exception.UnauthorizedException;
 import com.doorserve.model.Booking;
+import com.doorserve.model.BookingSeries;
 import com.doorserve.model.BookingStatus;
-import com.doorserve.model.ServicesCatalog;
+import com.doorserve.model.PartnerService;
+import com.doorserve.model.RecurrenceFrequency;
 import com.doorserve.model.User;
 import com.doorserve.model.UserType;
 import com.doorserve.repository.BookingRepository;
-import com.doorserve.repository.ServicesCatalogRepository;
+import com.doorserve.repository.BookingSeriesRepository;
+import com.doorserve.repository.PartnerServiceRepository;
 import com.doorserve.repository.UserRepository;
+import com.doorserve.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
+    private static final int MAX_BOOKING_PAGE_SIZE = 100;
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+    private static final int MAX_BATCH_ITEMS = 20;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
-    private final ServicesCatalogRepository servicesCatalogRepository;
+    private final PartnerServiceRepository partnerServiceRepository;
+    private final PartnerAvailabilityIndex partnerAvailabilityIndex;
+    private final PartnerScheduleLock partnerScheduleLock;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final BookingPartitionService bookingPartitionService;
 
+    @Transactional
     public BookingDto createBooking(BookingRequest request, User currentUser) {
         if (currentUser.getUserType() != UserType.CUSTOMER) {
             throw new UnauthorizedException("Only customers can create bookings");
@@ -40,52 +72,242 @@ public class BookingService {
             throw new ResourceNotFoundException("Selected user is not a service partner");
         }
 
-        ServicesCatalog serviceCatalog = servicesCatalogRepository.findById(request.getServiceId())
-                .orElseThrow(() -> new ResourceNotFoundException("ServiceCatalog not found"));
+        PartnerService partnerService = partnerServiceRepository
+                .findByPartnerIdAndServiceCatalogId(partner.getId(), request.getServiceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Partner does not offer this service"));
 
-        // Calculate end time based on service duration
-        LocalTime endTime = request.getStartTime().plusMinutes(request.getDuration());
+        // End time follows from the service duration
+        Booking booking = newBooking(request, currentUser, partner, partnerService);
 
-        // Check if the partner is available at the requested time
-        // This would involve checking for overlap with existing bookings
-        checkPartnerAvailability(partner.getId(), request.getBookingDate(), request.getStartTime(), endTime);
-
-        Booking booking = new Booking();
-        booking.setCustomer(currentUser);
-        booking.setPartner(partner);
-        // We need to find the partner service for this booking
-        // For now, we'll need to update the booking creation logic
-        booking.setBookingDate(request.getBookingDate());
-        booking.setStartTime(request.getStartTime());
-        booking.setEndTime(endTime);
-        booking.setStatus(BookingStatus.PENDING);
-        booking.setTotalPrice(request.getPrice());
+        // Check and insert under the partner's lock, so concurrent requests for the same slot cannot both pass
+        partnerScheduleLock.lock(partner.getId());
+        checkPartnerAvailability(partner.getId(), booking.getBookingDate(), booking.getStartTime(),
+                booking.getEndTime(), null);
 
         Booking savedBooking = bookingRepository.save(booking);
         
         return mapToDto(savedBooking);
     }
 
-    public List<BookingDto> getUserBookings(User currentUser, String status) {
-        List<Booking> bookings;
-        
-        if (currentUser.getUserType() == UserType.CUSTOMER) {
-            bookings = status != null 
-                ? bookingRepository.findByCustomerAndStatus(currentUser, BookingStatus.valueOf(status.toUpperCase()))
-                : bookingRepository.findByCustomer(currentUser);
-        } else if (currentUser.getUserType() == UserType.PARTNER) {
-            bookings = status != null 
-                ? bookingRepository.findByPartnerAndStatus(currentUser, BookingStatus.valueOf(status.toUpperCase()))
-                : bookingRepository.findByPartner(currentUser);
-        } else {
-            bookings = status != null 
-                ? bookingRepository.findByStatus(BookingStatus.valueOf(status.toUpperCase()))
-                : bookingRepository.findAll();
+    /**
+     * Book several services at once, e.g. plumbing and electrical work for one visit. Partners and
+     * offerings are fetched in two queries, each partner's items are checked with one range query,
+     * and either every item is booked in one transaction or none is.
+     * @param request The items to book
+     * @param currentUser The booking customer
+     * @return Per-item results in request order
+     */
+    @Transactional
+    public BatchBookingResultDto createBookings(BatchBookingRequest request, User currentUser) {
+        if (currentUser.getUserType() != UserType.CUSTOMER) {
+            throw new UnauthorizedException("Only customers can create bookings");
+        }
+        List<BookingRequest> items = request.getItems() != null ? request.getItems() : List.of();
+        if (items.isEmpty() || items.size() > MAX_BATCH_ITEMS) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + MAX_BATCH_ITEMS + " items");
+        }
+
+        Set<Long> partnerIds = new HashSet<>();
+        Set<Long> serviceIds = new HashSet<>();
+        items.stream().filter(BookingService::isComplete).forEach(item -> {
+            partnerIds.add(item.getPartnerId());
+            serviceIds.add(item.getServiceId());
+        });
+        Map<Long, User> partners = new HashMap<>();
+        userRepository.findAllById(partnerIds).stream()
+                .filter(user -> user.getUserType() == UserType.PARTNER)
+                .forEach(partner -> partners.put(partner.getId(), partner));
+        Map<Long, Map<Long, PartnerService>> offerings = new HashMap<>();
+        if (!partners.isEmpty()) {
+            partnerServiceRepository.findByPartnerIdsAndServiceCatalogIds(partners.keySet(), serviceIds)
+                    .forEach(offering -> offerings.computeIfAbsent(offering.getPartnerId(), id -> new HashMap<>())
+                            .put(offering.getServiceCatalogId(), offering));
+        }
+
+        // Resolve every item, then check the valid ones partner by partner
+        List<BatchBookingResultDto.ItemResultDto> results = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        Map<Long, List<Integer>> itemsByPartner = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BookingRequest item = items.get(i);
+            Booking booking = null;
+            if (!isComplete(item)) {
+                results.add(itemResult(BatchBookingResultDto.ItemStatus.INVALID,
+                        "Partner, service, booking date and start time are required"));
+            } else if (!partners.containsKey(item.getPartnerId())) {
+                results.add(itemResult(BatchBookingResultDto.ItemStatus.NOT_FOUND, "Partner not found"));
+            } else {
+                PartnerService offering = offerings.getOrDefault(item.getPartnerId(), Map.of()).get(item.getServiceId());
+                if (offering == null) {
+                    results.add(itemResult(BatchBookingResultDto.ItemStatus.NOT_FOUND,
+                            "Partner does not offer this service"));
+                } else {
+                    booking = newBooking(item, currentUser, partners.get(item.getPartnerId()), offering);
+                    results.add(itemResult(BatchBookingResultDto.ItemStatus.BOOKABLE, null));
+                    itemsByPartner.computeIfAbsent(item.getPartnerId(), id -> new ArrayList<>()).add(i);
+                }
+            }
+            bookings.add(booking);
+        }
+
+        partnerScheduleLock.lockAll(itemsByPartner.keySet());
+        itemsByPartner.forEach((partnerId, indexes) -> {
+            List<SlotHoldService.Slot> slots = indexes.stream()
+                    .map(bookings::get)
+                    .map(booking -> new SlotHoldService.Slot(partnerId, booking.getBookingDate(),
+                            booking.getStartTime(), booking.getEndTime()))
+                    .toList();
+            BitSet conflicts = partnerAvailabilityIndex.findConflicts(partnerId, slots);
+            for (int k = 0; k < indexes.size(); k++) {
+                if (conflicts.get(k)) {
+                    results.set(indexes.get(k), itemResult(BatchBookingResultDto.ItemStatus.CONFLICT,
+                            "The partner is not available at the requested time"));
+                } else if (overlapsEarlierItem(slots, k, conflicts)) {
+                    results.set(indexes.get(k), itemResult(BatchBookingResultDto.ItemStatus.CONFLICT,
+                            "Overlaps another item of this batch with the same partner"));
+                    conflicts.set(k);
+                }
+            }
+        });
+
+        boolean allBookable = results.stream()
+                .allMatch(result -> result.getStatus() == BatchBookingResultDto.ItemStatus.BOOKABLE);
+        if (!allBookable) {
+            return new BatchBookingResultDto(false, results);
+        }
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        for (int i = 0; i < saved.size(); i++) {
+            results.set(i, BatchBookingResultDto.ItemResultDto.builder()
+                    .status(BatchBookingResultDto.ItemStatus.BOOKED)
+                    .booking(mapToDto(saved.get(i)))
+                    .build());
+        }
+        return new BatchBookingResultDto(true, results);
+    }
+
+    /**
+     * Book a recurring series of the same time slot with one partner. All occurrences are checked
+     * against the partner's bookings with one range query and inserted in one transaction.
+     * @param request The series: first date, frequency, and an occurrence count and/or end date
+     * @param currentUser The booking customer
+     * @return The booked occurrences and the dates the partner is busy; if any date conflicts and the
+     *         request does not skip conflicts, nothing is booked
+     */
+    @Transactional
+    public BookingSeriesDto createRecurringBookings(RecurringBookingRequest request, User currentUser) {
+        if (currentUser.getUserType() != UserType.CUSTOMER) {
+            throw new UnauthorizedException("Only customers can create bookings");
+        }
+        List<LocalDate> dates = occurrenceDates(request);
+
+        User partner = userRepository.findById(request.getPartnerId())
+                .orElseThrow(() -> new ResourceNotFoundException("Partner not found"));
+        if (partner.getUserType() != UserType.PARTNER) {
+            throw new ResourceNotFoundException("Selected user is not a service partner");
+        }
+        PartnerService partnerService = partnerServiceRepository
+                .findByPartnerIdAndServiceCatalogId(partner.getId(), request.getServiceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Partner does not offer this service"));
+
+        int duration = request.getDuration() != null ? request.getDuration() : partnerService.getDuration();
+        LocalTime endTime = request.getStartTime().plusMinutes(duration);
+
+        partnerScheduleLock.lock(partner.getId());
+        List<LocalDate> conflicts = partnerAvailabilityIndex.findConflictingDays(
+                partner.getId(), dates, request.getStartTime(), endTime);
+        if (!conflicts.isEmpty() && (!request.isSkipConflicts() || conflicts.size() == dates.size())) {
+            return BookingSeriesDto.builder()
+                    .frequency(request.getFrequency())
+                    .bookings(List.of())
+                    .conflicts(conflicts)
+                    .build();
+        }
+
+        BookingSeries series = new BookingSeries();
+        series.setCustomerId(currentUser.getId());
+        series.setPartnerId(partner.getId());
+        series.setPartnerServiceId(partnerService.getId());
+        series.setFrequency(request.getFrequency());
+        series.setFirstDate(request.getFirstDate());
+        series.setUntilDate(request.getUntilDate());
+        series.setOccurrences(request.getOccurrences());
+        series.setStartTime(request.getStartTime());
+        series.setDuration(duration);
+        bookingSeriesRepository.save(series);
+
+        Set<LocalDate> busy = new HashSet<>(conflicts);
+        List<Booking> bookings = new ArrayList<>();
+        for (LocalDate date : dates) {
+            if (busy.contains(date)) {
+                continue;
+            }
+            Booking booking = new Booking();
+            booking.setCustomer(currentUser);
+            booking.setPartner(partner);
+            booking.setPartnerService(partnerService);
+            booking.setPrice(partnerService.getPrice());
+            booking.setDuration(duration);
+            booking.setBookingDate(date);
+            booking.setStartTime(request.getStartTime());
+            booking.setEndTime(endTime);
+            booking.setStatus(BookingStatus.PENDING);
+            booking.setTotalPrice(partnerService.getPrice());
+            booking.setSeriesId(series.getId());
+            bookings.add(booking);
+        }
+
+        return BookingSeriesDto.builder()
+                .seriesId(series.getId())
+                .frequency(series.getFrequency())
+                .bookings(bookingRepository.saveAll(bookings).stream().map(this::mapToDto).toList())
+                .conflicts(conflicts)
+                .build();
+    }
+
+    /**
+     * List a user's booking history one keyset page at a time. Customers and partners see their
+     * own bookings, admins see everyone's.
+     * @param currentUser The requesting user
+     * @param filter Optional status, date range, partner and service filters
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return One page of bookings, latest booking date first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookingDto> getUserBookings(User currentUser, BookingFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_BOOKING_PAGE_SIZE));
+        CursorUtils.DateIdKey after = CursorUtils.decodeDateId(cursor);
+        List<BookingDto> page = filter.isArchived()
+                ? findArchivedBookingPage(currentUser, filter, after, pageSize + 1)
+                : bookingRepository.findBookingPage(
+                        customerScope(currentUser), partnerScope(currentUser, filter), filter.getServiceId(),
+                        parseStatus(filter.getStatus()), filter.getFrom(), filter.getTo(),
+                        after != null ? after.date() : null, after != null ? after.id() : null,
+                        PageRequest.of(0, pageSize + 1));
+
+        List<BookingDto> items = page.size() > pageSize ? page.subList(0, pageSize) : page;
+        String nextCursor = page.size() > pageSize
+                ? CursorUtils.encodeDateId(items.get(pageSize - 1).getBookingDate(), items.get(pageSize - 1).getId())
+                : null;
+        return new CursorPageDto<>(List.copyOf(items), nextCursor);
+    }
+
+    /**
+     * Feed every booking matching a filter to a consumer, reading them from a database cursor in
+     * batches so memory stays bounded however many bookings match. Admins only.
+     * @param currentUser The requesting user
+     * @param filter Optional status, date range, partner and service filters
+     * @param sink Receives the bookings, latest booking date first
+     */
+    @Transactional(readOnly = true)
+    public void streamBookings(User currentUser, BookingFilter filter, Consumer<BookingDto> sink) {
+        if (currentUser.getUserType() != UserType.ADMIN) {
+            throw new UnauthorizedException("Only admins can export bookings");
+        }
+        try (Stream<BookingDto> bookings = bookingRepository.streamBookings(null, filter.getPartnerId(),
+                filter.getServiceId(), parseStatus(filter.getStatus()), filter.getFrom(), filter.getTo())) {
+            bookings.forEach(sink);
         }
-        
-        return bookings.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
     }
 
     public BookingDto getBookingById(Long id, User currentUser) {
@@ -145,6 +367,7 @@ public class BookingService {
         return mapToDto(updatedBooking);
     }
 
+    @Transactional
     public BookingDto rescheduleBooking(Long id, BookingRequest request, User currentUser) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
@@ -164,9 +387,10 @@ public class BookingService {
         // Calculate end time based on service duration
         LocalTime endTime = request.getStartTime().plusMinutes(request.getDuration());
         
-        // Check partner availability
+        // Check partner availability under the partner's lock
+        partnerScheduleLock.lock(booking.getPartner().getId());
         checkPartnerAvailability(booking.getPartner().getId(), request.getBookingDate(), 
-                                request.getStartTime(), endTime);
+                                request.getStartTime(), endTime, booking.getId());
         
         booking.setBookingDate(request.getBookingDate());
         booking.setStartTime(request.getStartTime());
@@ -177,18 +401,111 @@ public class BookingService {
         return mapToDto(updatedBooking);
     }
 
-    private void checkPartnerAvailability(Long partnerId, LocalDate date, LocalTime startTime, LocalTime endTime) {
-        List<Booking> existingBookings = bookingRepository.findByPartnerIdAndBookingDateAndStatusNot(
-                partnerId, date, BookingStatus.CANCELLED);
-        
-        boolean isOverlapping = existingBookings.stream().anyMatch(booking -> 
-                (startTime.isBefore(booking.getEndTime()) && endTime.isAfter(booking.getStartTime())));
-        
-        if (isOverlapping) {
+    private void checkPartnerAvailability(Long partnerId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                          Long excludeBookingId) {
+        if (!partnerAvailabilityIndex.isAvailable(partnerId, date, startTime, endTime, excludeBookingId, null)) {
             throw new IllegalStateException("The partner is not available at the requested time");
         }
     }
 
+    private static boolean isComplete(BookingRequest item) {
+        return item != null && item.getPartnerId() != null && item.getServiceId() != null
+                && item.getBookingDate() != null && item.getStartTime() != null;
+    }
+
+    private static Booking newBooking(BookingRequest item, User customer, User partner, PartnerService offering) {
+        int duration = item.getDuration() != null ? item.getDuration() : offering.getDuration();
+        Booking booking = new Booking();
+        booking.setCustomer(customer);
+        booking.setPartner(partner);
+        booking.setPartnerService(offering);
+        booking.setPrice(offering.getPrice());
+        booking.setDuration(duration);
+        booking.setBookingDate(item.getBookingDate());
+        booking.setStartTime(item.getStartTime());
+        booking.setEndTime(item.getStartTime().plusMinutes(duration));
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setTotalPrice(item.getPrice() != null ? item.getPrice() : offering.getPrice());
+        return booking;
+    }
+
+    // Whether a slot overlaps one listed before it that is not itself in conflict
+    private static boolean overlapsEarlierItem(List<SlotHoldService.Slot> slots, int index, BitSet conflicts) {
+        SlotHoldService.Slot slot = slots.get(index);
+        for (int k = 0; k < index; k++) {
+            SlotHoldService.Slot other = slots.get(k);
+            if (!conflicts.get(k) && other.date().equals(slot.date())
+                    && other.startTime().isBefore(slot.endTime()) && slot.startTime().isBefore(other.endTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BatchBookingResultDto.ItemResultDto itemResult(BatchBookingResultDto.ItemStatus status,
+                                                                  String message) {
+        return BatchBookingResultDto.ItemResultDto.builder().status(status).message(message).build();
+    }
+
+    private static List<LocalDate> occurrenceDates(RecurringBookingRequest request) {
+        if (request.getFrequency() == null || request.getFirstDate() == null || request.getStartTime() == null) {
+            throw new IllegalArgumentException("A series needs a frequency, a first date and a start time");
+        }
+        if (request.getOccurrences() == null && request.getUntilDate() == null) {
+            throw new IllegalArgumentException("A series needs a number of occurrences or an end date");
+        }
+        if (request.getFirstDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("A series cannot start in the past");
+        }
+        int weeks = request.getFrequency() == RecurrenceFrequency.BIWEEKLY ? 2 : 1;
+        int limit = request.getOccurrences() != null ? request.getOccurrences() : Integer.MAX_VALUE;
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = request.getFirstDate();
+             dates.size() < limit && (request.getUntilDate() == null || !date.isAfter(request.getUntilDate()));
+             date = date.plusWeeks(weeks)) {
+            // Rejected rather than cut short, so a booked series always covers what was asked for
+            if (dates.size() == MAX_SERIES_OCCURRENCES) {
+                throw new IllegalArgumentException("A series can have at most " + MAX_SERIES_OCCURRENCES + " occurrences");
+            }
+            dates.add(date);
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("The series has no occurrences");
+        }
+        return dates;
+    }
+
+    // Bookings moved out of the hot table are only read when a client asks for them
+    private List<BookingDto> findArchivedBookingPage(User currentUser, BookingFilter filter,
+                                                     CursorUtils.DateIdKey after, int limit) {
+        if (!bookingPartitionService.hasArchive("bookings")) {
+            return List.of();
+        }
+        BookingStatus status = parseStatus(filter.getStatus());
+        return bookingRepository.findArchivedBookingPage(customerScope(currentUser), partnerScope(currentUser, filter),
+                        filter.getServiceId(), status != null ? status.name() : null, filter.getFrom(), filter.getTo(),
+                        after != null ? after.date() : null, after != null ? after.id() : null, limit)
+                .stream()
+                .map(row -> new BookingDto(row.getId(), row.getCustomerId(), row.getCustomerName(),
+                        row.getPartnerId(), row.getPartnerName(), row.getServiceId(), row.getServiceName(),
+                        row.getPrice(), row.getDuration(), row.getBookingDate(), row.getStartTime(),
+                        row.getEndTime(), BookingStatus.valueOf(row.getStatus()), row.getTotalPrice(),
+                        row.getSeriesId()))
+                .toList();
+    }
+
+    private static Long customerScope(User currentUser) {
+        return currentUser.getUserType() == UserType.CUSTOMER ? currentUser.getId() : null;
+    }
+
+    private static Long partnerScope(User currentUser, BookingFilter filter) {
+        return currentUser.getUserType() == UserType.PARTNER ? currentUser.getId() : filter.getPartnerId();
+    }
+
+    private static BookingStatus parseStatus(String status) {
+        return status != null && !status.isBlank() ? BookingStatus.valueOf(status.toUpperCase()) : null;
+    }
+
     private BookingDto mapToDto(Booking booking) {
         return BookingDto.builder()
                 .id(booking.getId())
@@ -203,6 +520,7 @@ public class BookingService {
                 .endTime(booking.getEndTime())
                 .status(booking.getStatus())
                 .totalPrice(booking.getTotalPrice())
+                .seriesId(booking.getSeriesId())
                 .build();
     }
 }
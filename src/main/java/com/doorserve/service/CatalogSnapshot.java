@@ -0,0 +1,161 @@
+package com.doorserve.service;
+
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.util.SlugUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Immutable, pre-indexed copy of the services catalog.
+ * Snapshots are never modified after construction; writes build a new one.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final List<ServicesCatalog> services;
+    private final Map<Long, ServicesCatalog> servicesById;
+    private final Map<String, ServicesCatalog> servicesBySlug;
+    private final Map<String, List<ServicesCatalog>> servicesByCategory;
+    private final Map<String, List<ServicesCatalog>> servicesByCategorySlug;
+    private final Map<String, String> categorySlugs;
+
+    private CatalogSnapshot(long version, Collection<ServicesCatalog> source) {
+        List<ServicesCatalog> sorted = source.stream()
+                .map(CatalogSnapshot::copyOf)
+                .sorted(Comparator.comparing(ServicesCatalog::getId))
+                .toList();
+
+        Map<Long, ServicesCatalog> byId = new LinkedHashMap<>();
+        Map<String, ServicesCatalog> bySlug = new LinkedHashMap<>();
+        Map<String, List<ServicesCatalog>> byCategory = new TreeMap<>();
+        Map<String, List<ServicesCatalog>> byCategorySlug = new LinkedHashMap<>();
+        Map<String, String> slugsByCategory = new TreeMap<>();
+
+        for (ServicesCatalog service : sorted) {
+            byId.put(service.getId(), service);
+            if (service.getSlug() != null) {
+                bySlug.putIfAbsent(service.getSlug(), service);
+            }
+            String categorySlug = slugsByCategory.computeIfAbsent(service.getCategory(), SlugUtils::toSlug);
+            byCategory.computeIfAbsent(service.getCategory(), category -> new ArrayList<>()).add(service);
+            byCategorySlug.computeIfAbsent(categorySlug, slug -> new ArrayList<>()).add(service);
+        }
+
+        this.version = version;
+        this.services = sorted;
+        this.servicesById = Map.copyOf(byId);
+        this.servicesBySlug = Map.copyOf(bySlug);
+        this.servicesByCategory = freeze(byCategory);
+        this.servicesByCategorySlug = freeze(byCategorySlug);
+        this.categorySlugs = Collections.unmodifiableMap(slugsByCategory);
+    }
+
+    static CatalogSnapshot of(long version, Collection<ServicesCatalog> services) {
+        return new CatalogSnapshot(version, services);
+    }
+
+    static CatalogSnapshot empty() {
+        return new CatalogSnapshot(0, List.of());
+    }
+
+    /**
+     * Build the next snapshot with the given service added or replaced
+     */
+    CatalogSnapshot withService(long nextVersion, ServicesCatalog service) {
+        Map<Long, ServicesCatalog> next = new LinkedHashMap<>(servicesById);
+        next.put(service.getId(), service);
+        return new CatalogSnapshot(nextVersion, next.values());
+    }
+
+    /**
+     * Build the next snapshot with the given service removed
+     */
+    CatalogSnapshot withoutService(long nextVersion, Long serviceId) {
+        Map<Long, ServicesCatalog> next = new LinkedHashMap<>(servicesById);
+        next.remove(serviceId);
+        return new CatalogSnapshot(nextVersion, next.values());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ServicesCatalog> getServices() {
+        return services;
+    }
+
+    public Optional<ServicesCatalog> findById(Long id) {
+        return Optional.ofNullable(servicesById.get(id));
+    }
+
+    public Optional<ServicesCatalog> findBySlug(String slug) {
+        return Optional.ofNullable(servicesBySlug.get(slug));
+    }
+
+    public List<ServicesCatalog> findByCategory(String category) {
+        return servicesByCategory.getOrDefault(category, List.of());
+    }
+
+    public List<ServicesCatalog> findByCategorySlug(String categorySlug) {
+        return servicesByCategorySlug.getOrDefault(categorySlug, List.of());
+    }
+
+    /**
+     * Keyset page of a list returned by this snapshot. Those lists are all sorted by id,
+     * so the page start is found by binary search.
+     * @param sortedById A service list from this snapshot
+     * @param afterId Last id of the previous page, or null for the first page
+     * @param limit Maximum number of services
+     * @return The services following {@code afterId}
+     */
+    public static List<ServicesCatalog> after(List<ServicesCatalog> sortedById, Long afterId, int limit) {
+        int low = 0;
+        int high = sortedById.size();
+        while (afterId != null && low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedById.get(mid).getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sortedById.subList(low, Math.min(sortedById.size(), low + limit));
+    }
+
+    /**
+     * @return Category names mapped to their slugs, ordered by category name
+     */
+    public Map<String, String> getCategorySlugs() {
+        return categorySlugs;
+    }
+
+    private static Map<String, List<ServicesCatalog>> freeze(Map<String, List<ServicesCatalog>> source) {
+        Map<String, List<ServicesCatalog>> frozen = new LinkedHashMap<>();
+        source.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static ServicesCatalog copyOf(ServicesCatalog source) {
+        ServicesCatalog copy = new ServicesCatalog();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setSlug(source.getSlug());
+        copy.setDescription(source.getDescription());
+        copy.setCategory(source.getCategory());
+        copy.setBaseDuration(source.getBaseDuration());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setAvailable(source.getAvailable());
+        copy.setFeatured(source.getFeatured());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,160 @@
+package com.doorserve.service;
+
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.repository.AdvisoryLockRepository;
+import com.doorserve.repository.ServicesCatalogRepository;
+import com.doorserve.util.SlugUtils;
+import com.doorserve.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and publishes new ones on catalog writes.
+ * Readers get the current snapshot without locking or touching the database.
+ * Every swap is followed by a {@link CatalogChangedEvent} for indexes derived from the catalog.
+ *
+ * Writes made on other nodes are picked up by polling a fingerprint of the catalog table and
+ * reloading when it changes. Slugs are assigned against the database, not the snapshot, so they
+ * stay unique across nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    // Advisory lock namespace; see AdvisoryLockRepository
+    private static final int SLUG_LOCK = 3;
+    private static final Pattern NUMBER_SUFFIX = Pattern.compile("-\\d+$");
+
+    private final ServicesCatalogRepository servicesCatalogRepository;
+    private final AdvisoryLockRepository advisoryLockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+    private volatile String fingerprint;
+
+    /**
+     * Backfill missing slugs and load the first snapshot once the sample data has been loaded
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        String loadedFingerprint = servicesCatalogRepository.findFingerprint();
+        List<ServicesCatalog> allServices = servicesCatalogRepository.findAll();
+        List<ServicesCatalog> missingSlugs = allServices.stream()
+                .filter(service -> service.getSlug() == null)
+                .toList();
+        for (ServicesCatalog service : missingSlugs) {
+            service.setSlug(uniqueSlug(service.getName(), service.getId()));
+        }
+        servicesCatalogRepository.saveAll(missingSlugs);
+
+        CatalogSnapshot loaded = CatalogSnapshot.of(current.get().getVersion() + 1, allServices);
+        TransactionUtils.afterCommit(() -> {
+            swap(loaded);
+            // A backfill changes the table, so the next poll reloads once more
+            fingerprint = loadedFingerprint;
+            eventPublisher.publishEvent(CatalogChangedEvent.reloaded(current.get()));
+            log.info("Catalog snapshot v{} loaded with {} services ({} slugs backfilled)",
+                    current.get().getVersion(), loaded.getServices().size(), missingSlugs.size());
+        });
+    }
+
+    /**
+     * Reload the snapshot if the catalog table changed since it was last loaded, e.g. by another node.
+     * Writes made on this node are already in the snapshot, so they cause one redundant reload.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:10000}")
+    public void refreshIfChanged() {
+        if (fingerprint == null) {
+            return; // not loaded yet
+        }
+        String latest = servicesCatalogRepository.findFingerprint();
+        if (latest.equals(fingerprint)) {
+            return;
+        }
+        List<ServicesCatalog> allServices = servicesCatalogRepository.findAll();
+        CatalogSnapshot published;
+        synchronized (this) {
+            swap(CatalogSnapshot.of(current.get().getVersion() + 1, allServices));
+            published = current.get();
+            fingerprint = latest;
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.reloaded(published));
+        log.info("Catalog snapshot v{} reloaded after a change on another node", published.getVersion());
+    }
+
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Build a slug for the given name that no other service is using. Must be called in the transaction
+     * that saves the slug: it holds a lock on the slug until that commits, so concurrent writers on
+     * any node never pick the same one.
+     * @param name The service name
+     * @param serviceId The service ID, or null for a new service
+     * @return A unique slug
+     */
+    public String uniqueSlug(String name, Long serviceId) {
+        String base = SlugUtils.toSlug(name);
+        // "deep-clean-2" may be a numbered variant of "deep-clean", so both take the same lock
+        advisoryLockRepository.acquireXactLock(SLUG_LOCK, NUMBER_SUFFIX.matcher(base).replaceFirst("").hashCode());
+        Set<String> taken = new HashSet<>(servicesCatalogRepository.findSlugVariants(base, serviceId));
+        String slug = base;
+        int suffix = 2;
+        while (taken.contains(slug)) {
+            slug = base + "-" + suffix++;
+        }
+        return slug;
+    }
+
+    /**
+     * Publish a snapshot containing the saved service once the current transaction commits
+     * @param service The saved service
+     */
+    public void publishSaved(ServicesCatalog service) {
+        TransactionUtils.afterCommit(() -> publish(service.getId(),
+                snapshot -> snapshot.withService(snapshot.getVersion() + 1, service)));
+    }
+
+    /**
+     * Publish a snapshot without the deleted service once the current transaction commits
+     * @param serviceId The deleted service ID
+     */
+    public void publishDeleted(Long serviceId) {
+        TransactionUtils.afterCommit(() -> publish(serviceId,
+                snapshot -> snapshot.withoutService(snapshot.getVersion() + 1, serviceId)));
+    }
+
+    private void publish(Long serviceId, UnaryOperator<CatalogSnapshot> change) {
+        CatalogSnapshot published;
+        synchronized (this) {
+            swap(change.apply(current.get()));
+            published = current.get();
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.changed(published, serviceId));
+    }
+
+    private synchronized void swap(CatalogSnapshot next) {
+        CatalogSnapshot previous = current.get();
+        if (next.getVersion() <= previous.getVersion()) {
+            next = CatalogSnapshot.of(previous.getVersion() + 1, next.getServices());
+        }
+        current.set(next);
+    }
+}
@@ -0,0 +1,117 @@
+package com.doorserve.service;
+
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.event.PartnerServiceChangedEvent;
+import com.doorserve.model.PartnerService;
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.repository.PartnerServiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of everything the public catalog endpoints render: catalog services and partner offerings.
+ * The version moves on every committed change, so it can be used as an HTTP validator without
+ * looking at the data itself. Listeners run last, after the indexes built from the same events.
+ *
+ * Catalog changes made on other nodes arrive as snapshot reloads. Offering changes are tracked by a
+ * fingerprint of the partner_services table, re-read after local changes and polled for remote ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    // Counters restart with the process, so the boot time keeps ETags from a previous run from matching
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private final PartnerServiceRepository partnerServiceRepository;
+
+    private final AtomicReference<String> offeringsFingerprint = new AtomicReference<>("");
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Instant> lastModified = new AtomicReference<>(Instant.EPOCH);
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            touch(partnerServiceRepository.findLastModified());
+            event.snapshot().getServices().forEach(service -> touch(modifiedAt(service)));
+        } else {
+            touch(event.snapshot().findById(event.serviceId()).map(this::modifiedAt).orElse(null));
+        }
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPartnerServiceChanged(PartnerServiceChangedEvent event) {
+        PartnerService offering = event.partnerService();
+        touch(event.removed() ? null : modifiedAt(offering.getUpdatedAt(), offering.getCreatedAt()));
+        refreshOfferings();
+    }
+
+    /**
+     * Move the version if partner offerings changed since the last check, e.g. on another node
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:10000}")
+    public void refreshOfferings() {
+        String latest = partnerServiceRepository.findFingerprint();
+        String previous = offeringsFingerprint.getAndSet(latest);
+        if (latest.equals(previous)) {
+            return;
+        }
+        if (!previous.isEmpty()) {
+            // The latest change may have been a delete, which leaves no timestamp behind
+            touch(null);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return Fingerprint of the partner_services table as last read, the same on every node
+     */
+    public String offeringsFingerprint() {
+        return offeringsFingerprint.get();
+    }
+
+    /**
+     * @return Strong entity tag covering the catalog and partner offerings
+     */
+    public String etag() {
+        return "\"" + BOOT_ID + "-" + version.get() + "\"";
+    }
+
+    /**
+     * @return Time of the latest change, truncated to whole seconds as HTTP dates are
+     */
+    public Instant lastModified() {
+        return lastModified.get();
+    }
+
+    private LocalDateTime modifiedAt(ServicesCatalog service) {
+        return modifiedAt(service.getUpdatedAt(), service.getCreatedAt());
+    }
+
+    private static LocalDateTime modifiedAt(LocalDateTime updatedAt, LocalDateTime createdAt) {
+        return updatedAt != null ? updatedAt : createdAt;
+    }
+
+    private void touch(LocalDateTime modifiedAt) {
+        Instant instant = modifiedAt != null
+                ? modifiedAt.atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now();
+        Instant truncated = instant.truncatedTo(ChronoUnit.SECONDS);
+        lastModified.accumulateAndGet(truncated, (current, next) -> next.isAfter(current) ? next : current);
+    }
+}
@@ -1,68 +1,98 @@
 package com.doorserve.service;
 
-import com.doorserve.repository.ServicesCatalogRepository;
+import com.doorserve.dto.CategorySummaryDto;
+import com.doorserve.repository.PartnerServiceRepository;
+import com.doorserve.util.SlugUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
-    private final ServicesCatalogRepository servicesCatalogRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogVersionService catalogVersionService;
+    private final PartnerServiceRepository partnerServiceRepository;
 
-    public List<Map<String, Object>> getAllCategories() {
-        // Get distinct categories from services
-        List<String> categoryNames = servicesCatalogRepository.findDistinctCategories();
-        
-        return categoryNames.stream()
-                .map(this::createCategoryInfo)
-                .collect(Collectors.toList());
+    // Category summaries are rebuilt only when the catalog snapshot moves or the offerings table changes,
+    // on this node or another (see CatalogVersionService#offeringsFingerprint)
+    private volatile CategorySummaries summaries = new CategorySummaries(-1, null, List.of(), Map.of());
+    private volatile OfferingStats offeringStats = new OfferingStats(null, Map.of());
+
+    private record CategorySummaries(long catalogVersion, String offeringsFingerprint, List<CategorySummaryDto> all,
+                                     Map<String, CategorySummaryDto> byLowerCaseName) {
+    }
+
+    private record OfferingStats(String fingerprint,
+                                 Map<String, PartnerServiceRepository.CategoryOfferingStats> byCategory) {
     }
 
-    public Map<String, Object> getCategoryByName(String categoryName) {
-        // Check if category exists
-        List<String> categories = servicesCatalogRepository.findDistinctCategories();
-        boolean exists = categories.stream()
-                .anyMatch(cat -> cat.equalsIgnoreCase(categoryName));
-        
-        if (!exists) {
-            return null;
+    public List<CategorySummaryDto> getAllCategories() {
+        return currentSummaries().all();
+    }
+
+    public CategorySummaryDto getCategoryByName(String categoryName) {
+        return currentSummaries().byLowerCaseName().get(categoryName.toLowerCase());
+    }
+
+    private CategorySummaries currentSummaries() {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        CategorySummaries current = summaries;
+        if (isFresh(current, snapshot)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!isFresh(summaries, snapshot)) {
+                summaries = buildSummaries(snapshot);
+            }
+            return summaries;
         }
-        
-        return createCategoryInfo(categoryName);
     }
 
-    private Map<String, Object> createCategoryInfo(String categoryName) {
-        Map<String, Object> category = new HashMap<>();
-        category.put("name", categoryName);
-        category.put("slug", createSlug(categoryName));
-        category.put("description", getCategoryDescription(categoryName));
-        category.put("iconUrl", getCategoryIcon(categoryName));
-        
-        // Count services in this category
-        long serviceCount = servicesCatalogRepository.countByCategory(categoryName);
-        category.put("serviceCount", serviceCount);
-        
-        return category;
+    private boolean isFresh(CategorySummaries current, CatalogSnapshot snapshot) {
+        return current.catalogVersion() == snapshot.getVersion()
+                && catalogVersionService.offeringsFingerprint().equals(current.offeringsFingerprint());
     }
 
-    /**
-     * Convert a string to a URL-friendly slug
-     * @param text The text to convert
-     * @return URL-friendly slug
-     */
-    private String createSlug(String text) {
-        if (text == null) return "";
-        return text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", "") // Remove special characters
-                .replaceAll("\\s+", "-") // Replace spaces with hyphens
-                .replaceAll("-+", "-") // Replace multiple hyphens with single
-                .replaceAll("^-|-$", ""); // Remove leading/trailing hyphens
+    private CategorySummaries buildSummaries(CatalogSnapshot snapshot) {
+        // Partner and price aggregates cost one grouped query, and only after an offering changed
+        OfferingStats stats = offeringStats;
+        String fingerprint = catalogVersionService.offeringsFingerprint();
+        if (!fingerprint.equals(stats.fingerprint())) {
+            Map<String, PartnerServiceRepository.CategoryOfferingStats> byCategory = new HashMap<>();
+            for (PartnerServiceRepository.CategoryOfferingStats row : partnerServiceRepository.findCategoryOfferingStats()) {
+                byCategory.put(row.getCategory(), row);
+            }
+            stats = new OfferingStats(fingerprint, byCategory);
+            offeringStats = stats;
+        }
+
+        Map<String, CategorySummaryDto> byLowerCaseName = new HashMap<>();
+        List<CategorySummaryDto> all = new ArrayList<>();
+        for (Map.Entry<String, String> category : snapshot.getCategorySlugs().entrySet()) {
+            String categoryName = category.getKey();
+            Optional<PartnerServiceRepository.CategoryOfferingStats> offerings =
+                    Optional.ofNullable(stats.byCategory().get(categoryName));
+            CategorySummaryDto summary = CategorySummaryDto.builder()
+                    .name(categoryName)
+                    .slug(category.getValue())
+                    .description(getCategoryDescription(categoryName))
+                    .iconUrl(getCategoryIcon(categoryName))
+                    .serviceCount((long) snapshot.findByCategory(categoryName).size())
+                    .partnerCount(offerings.map(PartnerServiceRepository.CategoryOfferingStats::getPartnerCount).orElse(0L))
+                    .minPrice(offerings.map(PartnerServiceRepository.CategoryOfferingStats::getMinPrice).orElse(null))
+                    .maxPrice(offerings.map(PartnerServiceRepository.CategoryOfferingStats::getMaxPrice).orElse(null))
+                    .build();
+            all.add(summary);
+            byLowerCaseName.putIfAbsent(categoryName.toLowerCase(), summary);
+        }
+        return new CategorySummaries(snapshot.getVersion(), stats.fingerprint(), List.copyOf(all), Map.copyOf(byLowerCaseName));
     }
 
     private String getCategoryDescription(String categoryName) {
@@ -83,4 +113,4 @@ public class CategoryService {
         // Return null for now, can be implemented later with actual icon URLs
         return null;
     }
-}
\ No newline at end of file
+}
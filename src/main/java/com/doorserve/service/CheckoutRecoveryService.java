@@ -0,0 +1,80 @@
+package com.doorserve.service;
+
+import com.doorserve.exception.PaymentGatewayException;
+import com.doorserve.payment.PaymentGateway;
+import com.doorserve.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Settles checkouts left pending, e.g. because the process died between the phases of
+ * {@link PaymentService#createPaymentIntent} or the customer never confirmed. Orders that never got
+ * a payment intent are failed. For the others the gateway decides: a payment that went through marks
+ * the order paid, one still processing is left for a later run, and one still waiting for the customer
+ * is canceled at the gateway first, so the order is only failed once the payment can no longer be made.
+ *
+ * Every transition only applies to an order that is still pending, so nodes running this at the same
+ * time, or racing a late confirmation, settle each order once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutRecoveryService {
+
+    private final OrderRepository orderRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+
+    @Value("${payments.recovery.stale-after-minutes:30}")
+    private long staleAfterMinutes;
+
+    @Value("${payments.recovery.batch-size:100}")
+    private int batchSize;
+
+    // Orders that stay pending are passed over until the scan wraps around
+    private long lastSeenId;
+
+    @Scheduled(fixedDelayString = "${payments.recovery.interval-ms:60000}")
+    public void recoverPendingCheckouts() {
+        List<OrderRepository.PendingCheckout> pending = orderRepository.findPendingCheckoutsBefore(
+                LocalDateTime.now().minusMinutes(staleAfterMinutes), lastSeenId, PageRequest.of(0, batchSize));
+        lastSeenId = pending.size() < batchSize ? 0 : pending.get(pending.size() - 1).getOrderId();
+
+        int settled = 0;
+        for (OrderRepository.PendingCheckout checkout : pending) {
+            try {
+                if (settle(checkout)) {
+                    settled++;
+                }
+            } catch (PaymentGatewayException e) {
+                // Left pending for the next run
+                log.warn("Could not check payment of pending order {}: {}", checkout.getOrderId(), e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Recovering pending order {} failed", checkout.getOrderId(), e);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Settled {} of {} stale pending checkouts", settled, pending.size());
+        }
+    }
+
+    private boolean settle(OrderRepository.PendingCheckout checkout) {
+        if (checkout.getPaymentIntentId() == null) {
+            // The customer never got a client secret, so the order cannot have been paid for
+            paymentService.abandonCheckout(checkout.getOrderId());
+            return true;
+        }
+        PaymentGateway.GatewayIntent intent = paymentGateway.retrieveIntent(checkout.getPaymentIntentId());
+        if (intent.awaitingCustomer()) {
+            intent = paymentGateway.cancelIntent(intent.id());
+        }
+        return !"pending".equals(paymentService.recordPaymentResult(checkout.getOrderId(), intent).getStatus());
+    }
+}
@@ -0,0 +1,245 @@
+package com.doorserve.service;
+
+import com.doorserve.event.BookingChangedEvent;
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.event.ReviewChangedEvent;
+import com.doorserve.model.PartnerService;
+import com.doorserve.model.ServicesCatalog;
+import com.doorserve.repository.BookingRepository;
+import com.doorserve.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ranks catalog services for the featured listings.
+ *
+ * A service's score is its recent booking volume plus a boost for the {@code featured} flag, both
+ * decaying with the same half-life, scaled by a smoothed review rating. Decayed values are kept as
+ * {@code weight * exp(rate * (t - epoch))}, which grows with t instead of shrinking, so scores
+ * never have to be aged: a new booking simply outweighs an older one. Each change only re-scores
+ * the affected service, and the top K of every category is kept ready for O(K) reads.
+ *
+ * Booking commits only mark their service; demand of the marked services is re-read in one query
+ * on a short schedule, off the request threads, so a batch of bookings costs one aggregate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeaturedServicesService {
+
+    public static final int MAX_FEATURED = 20;
+
+    // Ratings are smoothed towards this mean as if every service had a few average reviews
+    private static final double PRIOR_RATING = 3.5;
+    private static final double PRIOR_REVIEWS = 5;
+    // Bookings older than this many half-lives weigh less than half a percent and are ignored
+    private static final int WINDOW_HALF_LIVES = 8;
+
+    private static final Comparator<Ranked> BY_RANK = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparing(Comparator.comparingDouble(Ranked::rating).reversed())
+            .thenComparingLong(Ranked::serviceId);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final BookingRepository bookingRepository;
+    private final ReviewRepository reviewRepository;
+
+    @Value("${featured.half-life-days:14}")
+    private double halfLifeDays;
+
+    // Weight of the featured flag, in bookings made at the time the service was last edited
+    @Value("${featured.flag-boost:10}")
+    private double flagBoost;
+
+    private LocalDateTime epoch = LocalDateTime.now();
+    private final Map<Long, Double> demandByService = new HashMap<>();
+    private final Map<Long, ReviewRepository.ServiceRating> ratingByService = new HashMap<>();
+    private final Map<Long, Ranked> rankedByService = new HashMap<>();
+    private final Map<String, TreeSet<Ranked>> rankedByCategory = new HashMap<>();
+    private final TreeSet<Ranked> rankedOverall = new TreeSet<>(BY_RANK);
+
+    private final Map<String, List<Long>> topByCategory = new ConcurrentHashMap<>();
+    private final Set<Long> staleDemand = ConcurrentHashMap.newKeySet();
+    private volatile List<Long> topOverall = List.of();
+
+    private record Ranked(long serviceId, String categoryKey, double score, double rating) {
+    }
+
+    /**
+     * Most popular services right now
+     * @param category Category name to restrict to, or null for the whole catalog
+     * @param limit Maximum number of services, capped at {@link #MAX_FEATURED}
+     * @return Services, most popular first
+     */
+    public List<ServicesCatalog> findFeatured(String category, int limit) {
+        List<Long> top = category == null ? topOverall : topByCategory.getOrDefault(categoryKey(category), List.of());
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        return top.stream()
+                .limit(Math.max(0, Math.min(limit, MAX_FEATURED)))
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            reload(event.snapshot());
+        } else {
+            rescore(event.snapshot(), event.serviceId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        PartnerService offering = event.booking().getPartnerService();
+        Long serviceId = offering != null ? offering.getServiceCatalogId() : null;
+        if (serviceId != null) {
+            staleDemand.add(serviceId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${featured.refresh-interval-ms:2000}")
+    public void refreshDemand() {
+        if (staleDemand.isEmpty()) {
+            return;
+        }
+        List<Long> serviceIds = new ArrayList<>(staleDemand);
+        serviceIds.forEach(staleDemand::remove);
+        synchronized (this) {
+            Map<Long, Double> demand = new HashMap<>();
+            bookingRepository.findDecayedDemandForServices(serviceIds, epoch, decayRate(), windowStart())
+                    .forEach(row -> demand.put(row.getServiceId(), row.getDemand()));
+            CatalogSnapshot snapshot = catalogSnapshotService.current();
+            for (Long serviceId : serviceIds) {
+                demandByService.put(serviceId, demand.getOrDefault(serviceId, 0.0));
+                rescore(snapshot, serviceId);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReviewChanged(ReviewChangedEvent event) {
+        PartnerService offering = event.review().getPartnerService();
+        Long serviceId = offering != null ? offering.getServiceCatalogId() : null;
+        if (serviceId == null) {
+            return;
+        }
+        reviewRepository.findRatingForService(serviceId).ifPresentOrElse(
+                rating -> ratingByService.put(serviceId, rating),
+                () -> ratingByService.remove(serviceId));
+        rescore(catalogSnapshotService.current(), serviceId);
+    }
+
+    private void reload(CatalogSnapshot snapshot) {
+        // Re-anchor the exponent so its values stay small however long the process runs
+        epoch = windowStart();
+        demandByService.clear();
+        ratingByService.clear();
+        rankedByService.clear();
+        rankedByCategory.clear();
+        rankedOverall.clear();
+        topByCategory.clear();
+
+        bookingRepository.findDecayedDemandByService(epoch, decayRate(), epoch)
+                .forEach(demand -> demandByService.put(demand.getServiceId(), demand.getDemand()));
+        reviewRepository.findRatingsByService()
+                .forEach(rating -> ratingByService.put(rating.getServiceId(), rating));
+        for (ServicesCatalog service : snapshot.getServices()) {
+            Ranked ranked = rank(service);
+            if (ranked != null) {
+                add(ranked);
+            }
+        }
+        rankedByCategory.keySet().forEach(this::publishTop);
+        topOverall = top(rankedOverall);
+        log.info("Featured ranking rebuilt for {} services in {} categories",
+                rankedByService.size(), rankedByCategory.size());
+    }
+
+    private void rescore(CatalogSnapshot snapshot, Long serviceId) {
+        Ranked previous = rankedByService.remove(serviceId);
+        if (previous != null) {
+            rankedOverall.remove(previous);
+            rankedByCategory.get(previous.categoryKey()).remove(previous);
+        }
+        Ranked next = snapshot.findById(serviceId).map(this::rank).orElse(null);
+        if (next != null) {
+            add(next);
+            publishTop(next.categoryKey());
+        }
+        if (previous != null && (next == null || !previous.categoryKey().equals(next.categoryKey()))) {
+            publishTop(previous.categoryKey());
+        }
+        topOverall = top(rankedOverall);
+    }
+
+    private Ranked rank(ServicesCatalog service) {
+        if (Boolean.FALSE.equals(service.getAvailable()) || service.getCategory() == null) {
+            return null;
+        }
+        double popularity = demandByService.getOrDefault(service.getId(), 0.0);
+        if (Boolean.TRUE.equals(service.getFeatured())) {
+            LocalDateTime flaggedAt = service.getUpdatedAt() != null ? service.getUpdatedAt() : service.getCreatedAt();
+            popularity += flagBoost * weightAt(flaggedAt != null ? flaggedAt : LocalDateTime.now());
+        }
+        ReviewRepository.ServiceRating reviews = ratingByService.get(service.getId());
+        double rating = reviews == null ? PRIOR_RATING
+                : (PRIOR_RATING * PRIOR_REVIEWS + reviews.getRatingSum()) / (PRIOR_REVIEWS + reviews.getReviewCount());
+        // A 5-star service counts one and a half times its popularity, a 1-star service under three quarters
+        double score = popularity * (0.5 + rating / 5);
+        return new Ranked(service.getId(), categoryKey(service.getCategory()), score, rating);
+    }
+
+    private void add(Ranked ranked) {
+        rankedByService.put(ranked.serviceId(), ranked);
+        rankedOverall.add(ranked);
+        rankedByCategory.computeIfAbsent(ranked.categoryKey(), key -> new TreeSet<>(BY_RANK)).add(ranked);
+    }
+
+    private void publishTop(String categoryKey) {
+        TreeSet<Ranked> ranked = rankedByCategory.get(categoryKey);
+        if (ranked == null || ranked.isEmpty()) {
+            rankedByCategory.remove(categoryKey);
+            topByCategory.remove(categoryKey);
+        } else {
+            topByCategory.put(categoryKey, top(ranked));
+        }
+    }
+
+    private static List<Long> top(TreeSet<Ranked> ranked) {
+        return ranked.stream().limit(MAX_FEATURED).map(Ranked::serviceId).toList();
+    }
+
+    private double weightAt(LocalDateTime time) {
+        return Math.exp(decayRate() * Duration.between(epoch, time).toSeconds());
+    }
+
+    private double decayRate() {
+        return Math.log(2) / (halfLifeDays * 86400);
+    }
+
+    private LocalDateTime windowStart() {
+        return LocalDateTime.now().minusSeconds((long) (WINDOW_HALF_LIVES * halfLifeDays * 86400));
+    }
+
+    private static String categoryKey(String category) {
+        return category.toLowerCase();
+    }
+}
@@ -0,0 +1,219 @@
+package com.doorserve.service;
+
+import com.doorserve.model.IdempotencyRecord;
+import com.doorserve.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its response to retries.
+ *
+ * A key is claimed with one upsert that commits before the work starts, so duplicates arriving on any
+ * node see it. Duplicates on the same node wait on the first execution's future; duplicates on other
+ * nodes poll the record until it completes. Only successful responses are kept, for
+ * {@code idempotency.ttl-hours}; a failed execution releases the key so a retry runs again.
+ * An in-progress claim is a lease that lapses if its node dies, after which a retry may take it over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MAX_POLL_MILLIS = 1000;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run an action once per key, or replay the response of the run that already happened
+     * @param key The client's Idempotency-Key
+     * @param userId The calling user; keys are scoped per user
+     * @param operation Name of the endpoint; keys are scoped per operation
+     * @param request The request body, compared across retries of the same key
+     * @param action Produces the response on the first execution
+     * @return The response, replayed or fresh; 422 if the key was used with a different request,
+     *         409 if the first execution is still running after the wait timeout
+     */
+    public ResponseEntity<?> execute(String key, Long userId, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = userId + ":" + operation + ":" + key;
+        String requestHash = hash(request);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(waitSeconds);
+
+        while (true) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                if (!await(running, deadline)) {
+                    return stillRunning();
+                }
+                continue;
+            }
+            try {
+                Optional<ResponseEntity<?>> response = claimOrReplay(id, requestHash, deadline, action);
+                if (response.isPresent()) {
+                    return response.get();
+                }
+            } finally {
+                inFlight.remove(id, mine);
+                mine.complete(null);
+            }
+            // The other execution failed and released the key; try to claim it ourselves
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Empty if the key was released by a failed execution elsewhere and should be claimed again
+    private Optional<ResponseEntity<?>> claimOrReplay(String id, String requestHash, long deadline,
+                                                      Supplier<ResponseEntity<?>> action) {
+        long pollMillis = 50;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.claim(id, requestHash, now, now.plusSeconds(leaseSeconds)));
+            if (claimed != null && claimed > 0) {
+                return Optional.of(run(id, action));
+            }
+
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+            if (existing.isEmpty()) {
+                return Optional.empty();
+            }
+            IdempotencyRecord record = existing.get();
+            if (!record.getRequestHash().equals(requestHash)) {
+                return Optional.of(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                        .body(HEADER + " was already used for a different request"));
+            }
+            if ("COMPLETED".equals(record.getStatus())) {
+                return Optional.of(replay(record));
+            }
+
+            // Running on another node: poll until it completes, fails or its lease lapses
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollMillis) > deadline) {
+                return Optional.of(stillRunning());
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.of(stillRunning());
+            }
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private ResponseEntity<?> run(String id, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            transactionTemplate.execute(status -> idempotencyRecordRepository.release(id));
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            transactionTemplate.execute(status -> idempotencyRecordRepository.release(id));
+            return response;
+        }
+
+        Object body = response.getBody();
+        String contentType = body instanceof String ? MediaType.TEXT_PLAIN_VALUE : MediaType.APPLICATION_JSON_VALUE;
+        String serialized;
+        try {
+            serialized = body == null || body instanceof String ? (String) body : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            // The work is done; keep the key claimed until its lease lapses rather than let a retry redo it
+            log.error("Could not store the response for idempotency key {}", id, e);
+            return response;
+        }
+        transactionTemplate.execute(status -> idempotencyRecordRepository.complete(id,
+                response.getStatusCode().value(), contentType, serialized, LocalDateTime.now().plusHours(ttlHours)));
+        return response;
+    }
+
+    private static ResponseEntity<?> replay(IdempotencyRecord record) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.parseMediaType(record.getResponseContentType()))
+                .body(record.getResponseBody());
+    }
+
+    private static ResponseEntity<?> stillRunning() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this " + HEADER + " is still in progress");
+    }
+
+    private static boolean await(CompletableFuture<Void> running, long deadline) {
+        try {
+            running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.doorserve.service;
+
+import com.doorserve.dto.OrderStatusDto;
+import com.doorserve.entity.Order;
+import com.doorserve.event.OrderStatusChangedEvent;
+import com.doorserve.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-sent events for clients waiting on an order to be booked after payment.
+ * Changes committed on this node are pushed at once; orders being watched are also re-read
+ * periodically, since the outbox worker that books them may run on another node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStatusNotifier {
+
+    private static final Set<String> FINAL_STATUSES = Set.of("confirmed", "booking_failed", "failed");
+
+    private final OrderRepository orderRepository;
+
+    @Value("${outbox.subscription-timeout-seconds:120}")
+    private long subscriptionTimeoutSeconds;
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, String> lastSent = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to an order's status. The current status is sent straight away, and the stream
+     * completes once the order reaches a final status.
+     */
+    public SseEmitter subscribe(OrderStatusDto current) {
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutSeconds * 1000);
+        Long orderId = current.getOrderId();
+        if (!send(emitter, current) || FINAL_STATUSES.contains(current.getStatus())) {
+            emitter.complete();
+            return emitter;
+        }
+        subscribers.computeIfAbsent(orderId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        lastSent.putIfAbsent(orderId, current.getStatus());
+        Runnable unsubscribe = () -> unsubscribe(orderId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(event.orderId(), event.status());
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.subscription-poll-ms:2000}")
+    public void pollWatchedOrders() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Order order : orderRepository.findAllById(new ArrayList<>(subscribers.keySet()))) {
+            publish(order.getId(), order.getStatus());
+        }
+    }
+
+    private void publish(Long orderId, String status) {
+        List<SseEmitter> emitters = subscribers.get(orderId);
+        if (emitters == null || status.equals(lastSent.put(orderId, status))) {
+            return;
+        }
+        OrderStatusDto update = new OrderStatusDto(orderId, status);
+        for (SseEmitter emitter : emitters) {
+            if (!send(emitter, update) || FINAL_STATUSES.contains(status)) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, OrderStatusDto status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping order status subscriber for order {}", status.getOrderId(), e);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Long orderId, SseEmitter emitter) {
+        subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            emitters.remove(emitter);
+            if (emitters.isEmpty()) {
+                lastSent.remove(orderId);
+                return null;
+            }
+            return emitters;
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package com.doorserve.service;
+
+import com.doorserve.entity.OutboxEvent;
+import com.doorserve.event.OrderStatusChangedEvent;
+import com.doorserve.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries out {@link OutboxEvent}s. Each worker thread claims a batch of due events with
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of threads and nodes can share the table without
+ * waiting on each other, and handles every event in its own transaction together with marking it done.
+ *
+ * A claimed event is leased rather than held locked; if its worker dies the event is picked up again
+ * once the lease runs out. Failures are retried with exponential backoff until {@code max-attempts}.
+ * Workers poll, and events written on this node also wake them straight away.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxWorker {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.workers:2}")
+    private int workers;
+
+    @Value("${outbox.batch-size:10}")
+    private int batchSize;
+
+    @Value("${outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-days:7}")
+    private long retentionDays;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private ExecutorService pool;
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::run);
+        }
+        log.info("Started {} outbox workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // A paid order has an outbox event waiting; don't let it sit until the next poll
+        if ("paid".equals(event.status()) && wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    @Scheduled(cron = "${outbox.cleanup-cron:0 0 4 * * *}")
+    public void purgeDone() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteDoneBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Purged {} processed outbox events", deleted);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<Long> ids = claimBatch();
+                ids.forEach(this::process);
+                if (ids.size() < batchSize) {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Claiming outbox events failed", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<Long> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxEventRepository.lockDue(now, batchSize);
+            if (!ids.isEmpty()) {
+                outboxEventRepository.markProcessing(ids, now.plusSeconds(leaseSeconds));
+            }
+            return ids;
+        });
+    }
+
+    private void process(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+                handle(event);
+                outboxEventRepository.markDone(id, LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> fail(id, e));
+            } catch (RuntimeException failure) {
+                // The lease runs out and the event is retried anyway
+                log.error("Recording failure of outbox event {} failed", id, failure);
+            }
+        }
+    }
+
+    private void handle(OutboxEvent event) {
+        if (PaymentService.ORDER_PAID_EVENT.equals(event.getEventType())) {
+            paymentService.completePaidOrder(event.getAggregateId());
+        } else {
+            throw new IllegalArgumentException("Unknown outbox event type " + event.getEventType());
+        }
+    }
+
+    private void fail(Long id, RuntimeException error) {
+        OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+        if (event == null) {
+            return;
+        }
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        // A taken slot stays taken, so only other errors are worth retrying
+        boolean permanent = error instanceof IllegalStateException || error instanceof IllegalArgumentException;
+        if (permanent || event.getAttempts() >= maxAttempts) {
+            log.error("Outbox event {} ({} {}) failed after {} attempts",
+                    id, event.getEventType(), event.getAggregateId(), event.getAttempts(), error);
+            outboxEventRepository.markFailed(id, "FAILED", now, message);
+            if (PaymentService.ORDER_PAID_EVENT.equals(event.getEventType())) {
+                paymentService.failPaidOrder(event.getAggregateId());
+            }
+            return;
+        }
+
+        Duration backoff = Duration.ofSeconds(1L << Math.min(event.getAttempts(), 20));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        log.warn("Outbox event {} failed on attempt {}, retrying in {}s",
+                id, event.getAttempts(), backoff.toSeconds(), error);
+        outboxEventRepository.markFailed(id, "PENDING", now.plus(backoff), message);
+    }
+}
@@ -1,40 +1,51 @@
 package com.doorserve.service;
 
+import com.doorserve.availability.PartnerAvailabilityIndex;
+import com.doorserve.availability.PartnerScheduleLock;
+import com.doorserve.availability.SlotHoldService;
 import com.doorserve.dto.CheckoutItem;
+import com.doorserve.dto.OrderStatusDto;
 import com.doorserve.dto.PaymentConfirmationRequest;
 import com.doorserve.dto.PaymentIntentRequest;
 import com.doorserve.dto.PaymentIntentResponse;
 import com.doorserve.entity.Order;
 import com.doorserve.entity.OrderItem;
+import com.doorserve.entity.OutboxEvent;
 import com.doorserve.entity.Payment;
+import com.doorserve.event.OrderStatusChangedEvent;
+import com.doorserve.exception.ResourceNotFoundException;
+import com.doorserve.exception.UnauthorizedException;
 import com.doorserve.model.Booking;
 import com.doorserve.model.PartnerService;
 import com.doorserve.model.User;
+import com.doorserve.payment.PaymentGateway;
 import com.doorserve.repository.BookingRepository;
 import com.doorserve.repository.CartRepository;
 import com.doorserve.repository.OrderItemRepository;
 import com.doorserve.repository.OrderRepository;
+import com.doorserve.repository.OutboxEventRepository;
 import com.doorserve.repository.PartnerServiceRepository;
 import com.doorserve.repository.PaymentRepository;
 import com.doorserve.repository.UserRepository;
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
+    public static final String ORDER_PAID_EVENT = "ORDER_PAID";
+
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
@@ -42,31 +53,126 @@ public class PaymentService {
     private final PartnerServiceRepository partnerServiceRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final SlotHoldService slotHoldService;
+    private final PartnerScheduleLock partnerScheduleLock;
+    private final PartnerAvailabilityIndex partnerAvailabilityIndex;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Create an order and start paying for it. Runs in three phases so that no database connection or
+     * row lock is held while the gateway is called: the pending order is saved, the gateway is called,
+     * and the payment is attached in a second short transaction. If the process dies in between,
+     * {@link CheckoutRecoveryService} cleans up the pending order.
+     */
+    public PaymentIntentResponse createPaymentIntent(PaymentIntentRequest request, Long customerId) {
+        Long orderId = transactionTemplate.execute(status -> createPendingOrder(request, customerId));
+
+        PaymentGateway.GatewayIntent intent;
+        try {
+            intent = paymentGateway.createIntent(orderId, request.getAmount(), request.getCurrency());
+        } catch (RuntimeException e) {
+            abandonCheckout(orderId);
+            throw e;
+        }
 
-    @Value("${STRIPE_SECRET_KEY:sk_test_placeholder}")
-    private String stripeSecretKey;
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findByIdForUpdate(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            if (!"pending".equals(order.getStatus())) {
+                throw new IllegalStateException("Checkout expired, please try again");
+            }
 
-    // Toggle this to switch between mock and real payments
-    private final boolean mockPayment = true;
+            // Save payment record
+            Payment payment = new Payment();
+            payment.setCustomer(order.getCustomer());
+            payment.setStripePaymentIntentId(intent.id());
+            payment.setAmount(request.getAmount());
+            payment.setCurrency(request.getCurrency());
+            payment.setStatus(intent.status());
+            paymentRepository.save(payment);
+
+            // Update order with payment
+            order.setPayment(payment);
+            orderRepository.save(order);
+        });
 
-    private void validateStripeConfiguration() {
-        if (stripeSecretKey == null || stripeSecretKey.equals("sk_test_placeholder") ||
-                stripeSecretKey.equals("sk_test_your_stripe_secret_key_here")) {
-            throw new IllegalStateException(
-                    "Stripe secret key is not properly configured. Please set STRIPE_SECRET_KEY environment variable with your actual Stripe secret key.");
-        }
+        return new PaymentIntentResponse(intent.clientSecret(), intent.id(), orderId);
     }
 
-    @Transactional
-    public PaymentIntentResponse createPaymentIntent(PaymentIntentRequest request, Long customerId)
-            throws StripeException {
-        if (mockPayment) {
-            return createMockPaymentIntent(request, customerId);
+    /**
+     * Record the outcome of a payment. Like checkout, the gateway is asked outside any transaction.
+     * Bookings for a paid order are created afterwards by the outbox worker; poll {@link #getOrderStatus}
+     * or subscribe to follow the order to "confirmed".
+     * @return The order's status: "paid" if the payment succeeded, "failed" if it was canceled,
+     *         otherwise still "pending"
+     */
+    public OrderStatusDto confirmPayment(PaymentConfirmationRequest request, Long customerId) {
+        Order order = orderRepository.findById(request.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (!"pending".equals(order.getStatus())) {
+            // Already confirmed, e.g. by an earlier request or by recovery
+            return new OrderStatusDto(order.getId(), order.getStatus());
         }
 
-        validateStripeConfiguration();
-        Stripe.apiKey = stripeSecretKey;
+        // Retrieve payment intent from the gateway
+        PaymentGateway.GatewayIntent intent = paymentGateway.retrieveIntent(request.getPaymentIntentId());
+
+        return recordPaymentResult(order.getId(), intent);
+    }
+
+    /**
+     * Apply a payment's state to its pending order: "paid" once it succeeded, "failed" once it was
+     * canceled and can never be charged. Any other state leaves the order pending, since the customer
+     * may still complete the payment. Does nothing if the order is no longer pending, so a confirmation
+     * and recovery racing each other apply only once.
+     */
+    public OrderStatusDto recordPaymentResult(Long orderId, PaymentGateway.GatewayIntent intent) {
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findByIdForUpdate(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            if (!"pending".equals(order.getStatus())) {
+                return new OrderStatusDto(order.getId(), order.getStatus());
+            }
+
+            // Update payment status
+            Payment payment = order.getPayment();
+            if (payment == null || !intent.id().equals(payment.getStripePaymentIntentId())) {
+                throw new IllegalArgumentException("Payment does not belong to this order");
+            }
+            payment.setStatus(intent.status());
+            payment.setPaymentMethod(intent.paymentMethod());
+            paymentRepository.save(payment);
+
+            // Update order status
+            if (intent.succeeded()) {
+                markPaid(order);
+            } else if (intent.canceled()) {
+                failOrder(order);
+            }
+            return new OrderStatusDto(order.getId(), order.getStatus());
+        });
+    }
+
+    /**
+     * Fail a pending order that never got a payment intent, releasing its slot holds. Without the
+     * intent's client secret the customer cannot have paid for it.
+     */
+    public void abandonCheckout(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+            if (order == null || !"pending".equals(order.getStatus())) {
+                return;
+            }
+            failOrder(order);
+        });
+    }
 
+    // Phase one of checkout: the order, its items and their slot holds
+    private Long createPendingOrder(PaymentIntentRequest request, Long customerId) {
         User customer = userRepository.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
 
@@ -92,10 +198,13 @@ public class PaymentService {
                 orderItems.add(orderItem);
             }
         } else if ("direct".equals(request.getPaymentType()) && request.getItems() != null) {
-            // Direct payment with provided items
+            // Direct payment with provided items; the services are loaded in one query
+            Map<Long, PartnerService> partnerServices = findPartnerServices(request.getItems());
             for (CheckoutItem item : request.getItems()) {
-                PartnerService partnerService = partnerServiceRepository.findById(item.getPartnerServiceId())
-                        .orElseThrow(() -> new RuntimeException("Service not found"));
+                PartnerService partnerService = partnerServices.get(item.getPartnerServiceId());
+                if (partnerService == null) {
+                    throw new RuntimeException("Service not found");
+                }
 
                 OrderItem orderItem = new OrderItem();
                 orderItem.setOrder(order);
@@ -110,204 +219,143 @@ public class PaymentService {
         }
 
         orderItemRepository.saveAll(orderItems);
-
-        // Create Stripe PaymentIntent
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(request.getAmount().multiply(new BigDecimal("100")).longValue()) // Convert to cents
-                .setCurrency(request.getCurrency().toLowerCase())
-                .setAutomaticPaymentMethods(
-                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                .setEnabled(true)
-                                .build())
-                .build();
-
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
-
-        // Save payment record
-        Payment payment = new Payment();
-        payment.setCustomer(customer);
-        payment.setStripePaymentIntentId(paymentIntent.getId());
-        payment.setAmount(request.getAmount());
-        payment.setCurrency(request.getCurrency());
-        payment.setStatus("pending");
-        paymentRepository.save(payment);
-
-        // Update order with payment
-        order.setPayment(payment);
-        orderRepository.save(order);
-
-        return new PaymentIntentResponse(
-                paymentIntent.getClientSecret(),
-                paymentIntent.getId(),
-                order.getId());
+        holdSlots(order, orderItems);
+        return order.getId();
     }
 
+    /**
+     * Book the items of a paid order and clear the customer's cart. Run by the outbox worker;
+     * does nothing if the order is not waiting for its bookings, so a redelivered event is harmless.
+     * The order row stays locked until commit, so a worker that took over an expired lease waits and
+     * then finds the order confirmed.
+     */
     @Transactional
-    public void confirmPayment(PaymentConfirmationRequest request, Long customerId) throws StripeException {
-        if (mockPayment) {
-            confirmMockPayment(request, customerId);
+    public void completePaidOrder(Long orderId) {
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (!"paid".equals(order.getStatus())) {
             return;
         }
 
-        validateStripeConfiguration();
-        Stripe.apiKey = stripeSecretKey;
-
-        // Retrieve payment intent from Stripe
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(request.getPaymentIntentId());
+        // Turn the order's slot holds into bookings
+        bookOrderItems(order, order.getPayment());
 
-        // Update payment status
-        Payment payment = paymentRepository.findByStripePaymentIntentId(request.getPaymentIntentId())
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        payment.setStatus(paymentIntent.getStatus());
-        payment.setPaymentMethod(paymentIntent.getPaymentMethod());
-        paymentRepository.save(payment);
-
-        // Update order status
-        Order order = orderRepository.findById(request.getOrderId())
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        if ("succeeded".equals(paymentIntent.getStatus())) {
-            order.setStatus("confirmed");
-            orderRepository.save(order);
+        // Clear cart if payment was from cart
+        cartRepository.deleteByUser(order.getCustomer());
 
-            // Create bookings for each order item
-            List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-            for (OrderItem item : orderItems) {
-                if (item.getBookingDate() != null && item.getStartTime() != null && item.getEndTime() != null) {
-                    Booking booking = new Booking();
-                    booking.setCustomer(order.getCustomer());
-                    booking.setPartner(item.getPartnerService().getPartner());
-                    booking.setPartnerService(item.getPartnerService());
-                    booking.setBookingDate(item.getBookingDate());
-                    booking.setStartTime(item.getStartTime());
-                    booking.setEndTime(item.getEndTime());
-                    booking.setPrice(item.getPrice());
-                    booking.setTotalPrice(item.getPrice().multiply(new BigDecimal(item.getQuantity())));
-                    booking.setStatus(com.doorserve.model.BookingStatus.CONFIRMED);
-                    bookingRepository.save(booking);
-
-                    // Update payment with booking reference
-                    payment.setBooking(booking);
-                    paymentRepository.save(payment);
-                }
-            }
+        updateStatus(order, "confirmed");
+    }
 
-            // Clear cart if payment was from cart
-            cartRepository.deleteByUser(order.getCustomer());
-        } else {
-            order.setStatus("failed");
-            orderRepository.save(order);
+    /**
+     * Give up on booking a paid order, e.g. because a slot was taken after its hold expired.
+     * The payment is left as it is, for a refund.
+     */
+    @Transactional
+    public void failPaidOrder(Long orderId) {
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (!"paid".equals(order.getStatus())) {
+            return;
         }
+        slotHoldService.release(orderId);
+        updateStatus(order, "booking_failed");
     }
 
-    // Mock payment method for testing without real Stripe keys
-    private PaymentIntentResponse createMockPaymentIntent(PaymentIntentRequest request, Long customerId) {
-        System.out.println("🧪 MOCK MODE: Creating mock payment intent for testing");
-
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
-
-        // Create order
-        Order order = new Order();
-        order.setCustomer(customer);
-        order.setTotalAmount(request.getAmount());
-        order.setStatus("pending");
-        order = orderRepository.save(order);
-
-        // Create order items
-        List<OrderItem> orderItems = new ArrayList<>();
-
-        if ("cart".equals(request.getPaymentType())) {
-            List<com.doorserve.model.Cart> cartItems = cartRepository.findByUser(customer);
-            for (com.doorserve.model.Cart cartItem : cartItems) {
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setPartnerService(cartItem.getPartnerService());
-                orderItem.setQuantity(cartItem.getQuantity());
-                orderItem.setPrice(cartItem.getPrice());
-                orderItems.add(orderItem);
-            }
-        } else if ("direct".equals(request.getPaymentType()) && request.getItems() != null) {
-            for (CheckoutItem item : request.getItems()) {
-                PartnerService partnerService = partnerServiceRepository.findById(item.getPartnerServiceId())
-                        .orElseThrow(() -> new RuntimeException("Service not found"));
-
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setPartnerService(partnerService);
-                orderItem.setQuantity(item.getQuantity());
-                orderItem.setPrice(item.getPrice());
-                orderItem.setBookingDate(item.getBookingDate());
-                orderItem.setStartTime(item.getStartTime());
-                orderItem.setEndTime(item.getEndTime());
-                orderItems.add(orderItem);
-            }
+    @Transactional(readOnly = true)
+    public OrderStatusDto getOrderStatus(Long orderId, Long customerId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (!order.getCustomer().getId().equals(customerId)) {
+            throw new UnauthorizedException("You don't have access to this order");
         }
-
-        orderItemRepository.saveAll(orderItems);
-
-        // Create mock payment record with unique ID
-        String uniquePaymentId = "pi_mock_" + UUID.randomUUID().toString().replace("-", "");
-        Payment payment = new Payment();
-        payment.setCustomer(customer);
-        payment.setStripePaymentIntentId(uniquePaymentId);
-        payment.setAmount(request.getAmount());
-        payment.setCurrency(request.getCurrency());
-        payment.setStatus("requires_payment_method");
-        paymentRepository.save(payment);
-
-        order.setPayment(payment);
-        orderRepository.save(order);
-
-        // Return mock response
-        return new PaymentIntentResponse(
-                "pi_mock_client_secret_" + UUID.randomUUID().toString().replace("-", ""),
-                payment.getStripePaymentIntentId(),
-                order.getId());
+        return new OrderStatusDto(order.getId(), order.getStatus());
     }
 
-    // Mock payment confirmation for testing
-    private void confirmMockPayment(PaymentConfirmationRequest request, Long customerId) {
-        System.out.println("🧪 MOCK MODE: Confirming mock payment");
-
-        Payment payment = paymentRepository.findByStripePaymentIntentId(request.getPaymentIntentId())
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        payment.setStatus("succeeded");
-        payment.setPaymentMethod("card");
-        paymentRepository.save(payment);
+    // Bookings are made by the outbox worker once this commits
+    private void markPaid(Order order) {
+        updateStatus(order, "paid");
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(ORDER_PAID_EVENT);
+        event.setAggregateId(order.getId());
+        outboxEventRepository.save(event);
+    }
 
-        Order order = orderRepository.findById(request.getOrderId())
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    private void failOrder(Order order) {
+        slotHoldService.release(order.getId());
+        updateStatus(order, "failed");
+    }
 
-        order.setStatus("confirmed");
+    private void updateStatus(Order order, String status) {
+        order.setStatus(status);
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), status));
+    }
+
+    /**
+     * Hold the time slots of an order's items until it is paid for or the hold expires
+     */
+    private void holdSlots(Order order, List<OrderItem> orderItems) {
+        List<SlotHoldService.Slot> slots = orderItems.stream()
+                .filter(PaymentService::isScheduled)
+                .map(item -> new SlotHoldService.Slot(item.getPartnerService().getPartnerId(),
+                        item.getBookingDate(), item.getStartTime(), item.getEndTime()))
+                .toList();
+        slotHoldService.hold(order.getId(), slots);
+    }
 
-        // Create mock bookings
-        List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
+    /**
+     * Create a confirmed booking for every scheduled item of a paid order, replacing the order's holds.
+     * If a hold expired and its slot was taken meanwhile, the confirmation fails instead of
+     * creating an overlapping booking.
+     */
+    private void bookOrderItems(Order order, Payment payment) {
+        List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId()).stream()
+                .filter(PaymentService::isScheduled)
+                .toList();
+        partnerScheduleLock.lockAll(orderItems.stream()
+                .map(item -> item.getPartnerService().getPartnerId())
+                .toList());
         for (OrderItem item : orderItems) {
-            if (item.getBookingDate() != null && item.getStartTime() != null && item.getEndTime() != null) {
-                Booking booking = new Booking();
-                booking.setCustomer(order.getCustomer());
-                booking.setPartner(item.getPartnerService().getPartner());
-                booking.setPartnerService(item.getPartnerService());
-                booking.setBookingDate(item.getBookingDate());
-                booking.setStartTime(item.getStartTime());
-                booking.setEndTime(item.getEndTime());
-                booking.setPrice(item.getPrice());
-                booking.setTotalPrice(item.getPrice().multiply(new BigDecimal(item.getQuantity())));
-                booking.setStatus(com.doorserve.model.BookingStatus.CONFIRMED);
-                bookingRepository.save(booking);
-
-                payment.setBooking(booking);
-                paymentRepository.save(payment);
+            if (!partnerAvailabilityIndex.isAvailable(item.getPartnerService().getPartnerId(), item.getBookingDate(),
+                    item.getStartTime(), item.getEndTime(), null, order.getId())) {
+                throw new IllegalStateException("A booked time slot is no longer available");
             }
         }
+        slotHoldService.release(order.getId());
 
-        // Clear cart
-        cartRepository.deleteByUser(order.getCustomer());
+        List<Booking> bookings = new ArrayList<>();
+        for (OrderItem item : orderItems) {
+            Booking booking = new Booking();
+            booking.setCustomer(order.getCustomer());
+            booking.setPartner(item.getPartnerService().getPartner());
+            booking.setPartnerService(item.getPartnerService());
+            booking.setBookingDate(item.getBookingDate());
+            booking.setStartTime(item.getStartTime());
+            booking.setEndTime(item.getEndTime());
+            booking.setPrice(item.getPrice());
+            booking.setTotalPrice(item.getPrice().multiply(new BigDecimal(item.getQuantity())));
+            booking.setStatus(com.doorserve.model.BookingStatus.CONFIRMED);
+            bookings.add(booking);
+        }
+        // Inserted as one JDBC batch at flush
+        bookingRepository.saveAll(bookings);
+
+        // Update payment with booking reference
+        if (!bookings.isEmpty()) {
+            payment.setBooking(bookings.get(bookings.size() - 1));
+            paymentRepository.save(payment);
+        }
+    }
+
+    private Map<Long, PartnerService> findPartnerServices(List<CheckoutItem> items) {
+        return partnerServiceRepository.findAllById(items.stream()
+                        .map(CheckoutItem::getPartnerServiceId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(PartnerService::getId, Function.identity()));
+    }
 
-        System.out.println("✅ MOCK MODE: Payment confirmed successfully");
+    private static boolean isScheduled(OrderItem item) {
+        return item.getBookingDate() != null && item.getStartTime() != null && item.getEndTime() != null;
     }
-}
\ No newline at end of file
+}
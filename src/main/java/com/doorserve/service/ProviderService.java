@@ -1,5 +1,9 @@
 package com.doorserve.service;
 
+import com.doorserve.availability.PartnerOccupancyIndex;
+import com.doorserve.availability.SlotFinder;
+import com.doorserve.dto.AvailablePartnerDto;
+import com.doorserve.dto.AvailableSlotsDto;
 import com.doorserve.dto.ProviderServiceDetailsDto;
 import com.doorserve.dto.OtherServiceDto;
 import com.doorserve.model.User;
@@ -7,9 +11,17 @@ import com.doorserve.model.PartnerService;
 import com.doorserve.repository.UserRepository;
 import com.doorserve.repository.PartnerServiceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,8 +29,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProviderService {
 
+    private static final int MAX_AVAILABLE_PARTNERS = 50;
+
     private final UserRepository userRepository;
     private final PartnerServiceRepository partnerServiceRepository;
+    private final SlotFinder slotFinder;
+    private final PartnerOccupancyIndex partnerOccupancyIndex;
+
+    @Value("${availability.max-range-days:31}")
+    private int maxRangeDays;
+
+    @Value("${availability.horizon-days:180}")
+    private int horizonDays;
+
+    @Value("${availability.opening-time:08:00}")
+    private String openingTime;
+
+    @Value("${availability.closing-time:20:00}")
+    private String closingTime;
+
+    @Value("${availability.slot-step-minutes:30}")
+    private int slotStepMinutes;
 
     public ProviderServiceDetailsDto getProviderServiceDetails(Long partnerId, Long serviceId) {
         // Get provider details
@@ -66,4 +97,115 @@ public class ProviderService {
                 ))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Every start time at which a partner can take a job for one of their services
+     * @param partnerId The partner's user ID
+     * @param serviceId The catalog service ID; its offering's duration sets the slot length
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @return Free start times per day, or null if the partner does not offer the service
+     */
+    public AvailableSlotsDto getAvailableSlots(Long partnerId, Long serviceId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must be between 1 and " + maxRangeDays + " days");
+        }
+        Optional<PartnerService> partnerServiceOpt = partnerServiceRepository
+                .findByPartnerIdAndServiceCatalogId(partnerId, serviceId);
+        if (partnerServiceOpt.isEmpty()) {
+            return null;
+        }
+
+        int duration = partnerServiceOpt.get().getDuration();
+        List<AvailableSlotsDto.DaySlotsDto> days = slotFinder.findFreeStartTimes(partnerId, from, to, duration)
+                .entrySet().stream()
+                .map(day -> AvailableSlotsDto.DaySlotsDto.builder()
+                        .date(day.getKey())
+                        .startTimes(day.getValue())
+                        .build())
+                .toList();
+
+        return AvailableSlotsDto.builder()
+                .partnerId(partnerId)
+                .serviceId(serviceId)
+                .duration(duration)
+                .days(days)
+                .build();
+    }
+
+    /**
+     * Partners of a service who are free on a day, best rated and then cheapest first
+     * @param serviceId The catalog service ID
+     * @param date The day
+     * @param start Desired start time, or the start of the window if {@code end} is given
+     * @param end End of the window the job must fit in, or null to start exactly at {@code start}
+     * @param limit Maximum number of partners to return
+     * @return Available partners with their earliest free start time
+     */
+    public List<AvailablePartnerDto> findAvailablePartners(Long serviceId, LocalDate date, LocalTime start,
+                                                           LocalTime end, int limit) {
+        if (end != null && !end.isAfter(start)) {
+            throw new IllegalArgumentException("The end of the time window must be after its start");
+        }
+        LocalTime opening = LocalTime.parse(openingTime);
+        LocalTime closing = LocalTime.parse(closingTime);
+        if (end == null && !alignUp(start, opening).equals(start)) {
+            throw new IllegalArgumentException("Start times fall on a " + slotStepMinutes
+                    + "-minute grid from " + opening);
+        }
+        LocalTime earliestStart = start.isBefore(opening) ? opening : start;
+        LocalTime latestStart = end != null ? end : start;
+        LocalTime latestEnd = end != null && end.isBefore(closing) ? end : closing;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (date.isBefore(now.toLocalDate())) {
+            return List.of();
+        }
+        if (date.isAfter(now.toLocalDate().plusDays(horizonDays))) {
+            throw new IllegalArgumentException("Partners can be searched up to " + horizonDays + " days ahead");
+        }
+        if (date.equals(now.toLocalDate()) && now.toLocalTime().isAfter(earliestStart)) {
+            if (end == null) {
+                return List.of();
+            }
+            earliestStart = alignUp(now.toLocalTime(), opening);
+        }
+
+        // Already ordered by rating and price; a partner listed twice keeps their best offering
+        Map<Long, PartnerServiceRepository.PartnerOffering> offerings = new LinkedHashMap<>();
+        for (PartnerServiceRepository.PartnerOffering offering
+                : partnerServiceRepository.findTopAvailableOfferings(serviceId, Pageable.unpaged())) {
+            offerings.putIfAbsent(offering.getPartnerId(), offering);
+        }
+        Map<Long, Integer> durations = new LinkedHashMap<>();
+        offerings.forEach((partnerId, offering) -> durations.put(partnerId, offering.getDuration()));
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_AVAILABLE_PARTNERS));
+        return partnerOccupancyIndex.findEarliestStarts(durations, date, earliestStart, latestStart, latestEnd)
+                .entrySet().stream()
+                .limit(pageSize)
+                .map(free -> {
+                    PartnerServiceRepository.PartnerOffering offering = offerings.get(free.getKey());
+                    return AvailablePartnerDto.builder()
+                            .partnerId(offering.getPartnerId())
+                            .partnerName(offering.getPartnerFirstName() + " " + offering.getPartnerLastName())
+                            .partnerServiceId(offering.getId())
+                            .price(offering.getPrice())
+                            .duration(offering.getDuration())
+                            .rating(offering.getRating())
+                            .totalJobs(offering.getTotalJobs())
+                            .experienceYears(offering.getExperienceYears())
+                            .startTime(free.getValue())
+                            .endTime(free.getValue().plusMinutes(offering.getDuration()))
+                            .build();
+                })
+                .toList();
+    }
+
+    // Next start time on the slot grid, which runs from opening time
+    private LocalTime alignUp(LocalTime time, LocalTime origin) {
+        int step = slotStepMinutes * 60;
+        int offset = time.toSecondOfDay() - origin.toSecondOfDay();
+        return origin.plusSeconds((long) (offset + step - 1) / step * step);
+    }
+}
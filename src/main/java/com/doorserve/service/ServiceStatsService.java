@@ -0,0 +1,72 @@
+package com.doorserve.service;
+
+import com.doorserve.event.CatalogChangedEvent;
+import com.doorserve.event.PartnerServiceChangedEvent;
+import com.doorserve.model.ServiceStats;
+import com.doorserve.repository.ServiceStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+/**
+ * Keeps the {@code service_stats} rollup in step with partner offerings.
+ * The whole table is reconciled once at startup; after that each offering write only refreshes
+ * the row of the service it belongs to.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServiceStatsService {
+
+    private final ServiceStatsRepository serviceStatsRepository;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int refreshed = serviceStatsRepository.refreshAll();
+        int removed = serviceStatsRepository.deleteOrphans();
+        log.info("Service stats rebuilt for {} services ({} stale rows removed)", refreshed, removed);
+    }
+
+    /**
+     * Refresh the rollup of the offering's service once the offering write has committed, and of the
+     * service it moved away from, if any.
+     * Runs before the catalog version moves, so a new ETag is never handed out with old stats.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPartnerServiceChanged(PartnerServiceChangedEvent event) {
+        Long serviceId = event.partnerService().getServiceCatalogId();
+        if (serviceId != null) {
+            serviceStatsRepository.refresh(serviceId);
+        }
+        Long previousServiceId = event.previousServiceId();
+        if (previousServiceId != null && !previousServiceId.equals(serviceId)) {
+            serviceStatsRepository.refresh(previousServiceId);
+        }
+    }
+
+    // Catalog events are published from an after-commit callback, so this needs a transaction of its own
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.isReload() && event.snapshot().findById(event.serviceId()).isEmpty()) {
+            serviceStatsRepository.deleteById(event.serviceId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ServiceStats> getStats(Long serviceId) {
+        return serviceStatsRepository.findById(serviceId);
+    }
+}
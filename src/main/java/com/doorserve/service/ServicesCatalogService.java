@@ -1,36 +1,124 @@
 package com.doorserve.service;
 
+import com.doorserve.dto.CursorPageDto;
+import com.doorserve.dto.ServiceCardDto;
 import com.doorserve.dto.ServiceDetailsDto;
-import com.doorserve.model.PartnerService;
+import com.doorserve.dto.SuggestionDto;
+import com.doorserve.model.ServiceStats;
 import com.doorserve.model.ServicesCatalog;
 import com.doorserve.repository.PartnerServiceRepository;
 import com.doorserve.repository.ServicesCatalogRepository;
+import com.doorserve.search.SearchHits;
+import com.doorserve.search.ServiceSearchIndex;
+import com.doorserve.search.ServiceSuggestIndex;
+import com.doorserve.util.CursorUtils;
+import com.doorserve.util.SlugUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ServicesCatalogService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_LISTING_PAGE_SIZE = 100;
+    private static final int MAX_PARTNER_PAGE_SIZE = 50;
+
     private final ServicesCatalogRepository servicesCatalogRepository;
     private final PartnerServiceRepository partnerServiceRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ServiceSearchIndex serviceSearchIndex;
+    private final ServiceSuggestIndex serviceSuggestIndex;
+    private final ServiceStatsService serviceStatsService;
+    private final FeaturedServicesService featuredServicesService;
 
     @Autowired
     public ServicesCatalogService(ServicesCatalogRepository servicesCatalogRepository, 
-                                 PartnerServiceRepository partnerServiceRepository) {
+                                 PartnerServiceRepository partnerServiceRepository,
+                                 CatalogSnapshotService catalogSnapshotService,
+                                 ServiceSearchIndex serviceSearchIndex,
+                                 ServiceSuggestIndex serviceSuggestIndex,
+                                 ServiceStatsService serviceStatsService,
+                                 FeaturedServicesService featuredServicesService) {
         this.servicesCatalogRepository = servicesCatalogRepository;
         this.partnerServiceRepository = partnerServiceRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.serviceSearchIndex = serviceSearchIndex;
+        this.serviceSuggestIndex = serviceSuggestIndex;
+        this.serviceStatsService = serviceStatsService;
+        this.featuredServicesService = featuredServicesService;
     }
 
     /**
      * Find all available services
-     * @return List of all services
+     * @return List of all services, served from the current catalog snapshot
      */
     public List<ServicesCatalog> findAllServices() {
-        return servicesCatalogRepository.findAll();
+        return catalogSnapshotService.current().getServices();
+    }
+
+    /**
+     * List services as cards, one keyset page at a time
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return One page of services ordered by id
+     */
+    public CursorPageDto<ServiceCardDto> listServices(String cursor, int limit) {
+        return toCardPage(catalogSnapshotService.current().getServices(), cursor, limit);
+    }
+
+    /**
+     * List the services of a category as cards, one keyset page at a time
+     * @param category The service category
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return One page of services ordered by id
+     */
+    public CursorPageDto<ServiceCardDto> listServicesByCategory(String category, String cursor, int limit) {
+        return toCardPage(catalogSnapshotService.current().findByCategory(category), cursor, limit);
+    }
+
+    /**
+     * List the services a provider offers as cards, one keyset page at a time
+     * @param providerId The provider's user ID
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return One page of services ordered by id
+     */
+    public CursorPageDto<ServiceCardDto> listServicesByProvider(Long providerId, String cursor, int limit) {
+        Long afterId = CursorUtils.decodeId(cursor);
+        int pageSize = clampListingLimit(limit);
+        List<Long> ids = partnerServiceRepository.findServiceCatalogIdsByPartnerIdAfter(
+                providerId, afterId != null ? afterId : 0L, PageRequest.of(0, pageSize + 1));
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        List<ServiceCardDto> cards = ids.stream()
+                .limit(pageSize)
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
+                .map(ServicesCatalogService::toCard)
+                .toList();
+        String nextCursor = ids.size() > pageSize ? CursorUtils.encodeId(ids.get(pageSize - 1)) : null;
+        return new CursorPageDto<>(cards, nextCursor);
+    }
+
+    /**
+     * Find all services a provider offers
+     * @param providerId The provider's user ID
+     * @return List of services ordered by id
+     */
+    public List<ServicesCatalog> findServicesByProviderId(Long providerId) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        return partnerServiceRepository.findServiceCatalogIdsByPartnerId(providerId).stream()
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     /**
@@ -39,7 +127,7 @@ public class ServicesCatalogService {
      * @return List of services in the given category
      */
     public List<ServicesCatalog> findServicesByCategory(String category) {
-        return servicesCatalogRepository.findByCategory(category);
+        return catalogSnapshotService.current().findByCategory(category);
     }
 
     /**
@@ -48,7 +136,7 @@ public class ServicesCatalogService {
      * @return The service if found
      */
     public Optional<ServicesCatalog> findServiceById(Long id) {
-        return servicesCatalogRepository.findById(id);
+        return catalogSnapshotService.current().findById(id);
     }
 
     /**
@@ -58,7 +146,10 @@ public class ServicesCatalogService {
      */
     @Transactional
     public ServicesCatalog createService(ServicesCatalog service) {
-        return servicesCatalogRepository.save(service);
+        service.setSlug(catalogSnapshotService.uniqueSlug(service.getName(), null));
+        ServicesCatalog saved = servicesCatalogRepository.save(service);
+        catalogSnapshotService.publishSaved(saved);
+        return saved;
     }
 
     /**
@@ -74,10 +165,13 @@ public class ServicesCatalogService {
                 .orElseThrow(() -> new RuntimeException("Service not found with id: " + id));
         
         service.setName(serviceDetails.getName());
+        service.setSlug(catalogSnapshotService.uniqueSlug(serviceDetails.getName(), id));
         service.setDescription(serviceDetails.getDescription());
         service.setCategory(serviceDetails.getCategory());
         
-        return servicesCatalogRepository.save(service);
+        ServicesCatalog saved = servicesCatalogRepository.save(service);
+        catalogSnapshotService.publishSaved(saved);
+        return saved;
     }
 
     /**
@@ -89,33 +183,88 @@ public class ServicesCatalogService {
     public boolean deleteService(Long id) {
         if (servicesCatalogRepository.existsById(id)) {
             servicesCatalogRepository.deleteById(id);
+            catalogSnapshotService.publishDeleted(id);
             return true;
         }
         return false;
     }
 
     /**
-     * Search services by name or description containing the search term
-     * @param searchTerm The search term
-     * @return List of matching services
+     * Search services by name, category, description and partner offerings, ranked by relevance
+     * @param searchTerm The search term, may contain several words
+     * @param fuzzy Whether to tolerate typos in the search term
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return One page of matching services, best match first
      */
-    public List<ServicesCatalog> searchServices(String searchTerm) {
-        return servicesCatalogRepository.findByNameContainingOrDescriptionContaining(
-                searchTerm, searchTerm);
+    public Page<ServicesCatalog> searchServices(String searchTerm, boolean fuzzy, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
+        SearchHits hits = serviceSearchIndex.search(searchTerm, fuzzy, (int) pageRequest.getOffset(), pageRequest.getPageSize());
+        return new PageImpl<>(toServices(hits), pageRequest, hits.total());
     }
 
     /**
-     * Convert a string to a URL-friendly slug
-     * @param text The text to convert
-     * @return URL-friendly slug
+     * Typeahead completions for a partially typed query
+     * @param prefix What the user has typed so far
+     * @param limit Maximum number of completions
+     * @return Services, categories and popular partner offerings, most booked first
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return serviceSuggestIndex.suggest(prefix, limit).stream()
+                .map(suggestion -> SuggestionDto.builder()
+                        .text(suggestion.text())
+                        .type(suggestion.type())
+                        .slug(suggestion.slug())
+                        .serviceId(suggestion.serviceId())
+                        .partnerId(suggestion.partnerId())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Find the most popular services by recent bookings, ratings and the featured flag
+     * @param category Category to restrict to, or null for the whole catalog
+     * @param limit Maximum number of services
+     * @return Featured services, most popular first
      */
-    private String createSlug(String text) {
-        if (text == null) return "";
-        return text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", "") // Remove special characters
-                .replaceAll("\\s+", "-") // Replace spaces with hyphens
-                .replaceAll("-+", "-") // Replace multiple hyphens with single
-                .replaceAll("^-|-$", ""); // Remove leading/trailing hyphens
+    public List<ServicesCatalog> findFeaturedServices(String category, int limit) {
+        return featuredServicesService.findFeatured(category, limit);
+    }
+
+    private static CursorPageDto<ServiceCardDto> toCardPage(List<ServicesCatalog> sortedById, String cursor, int limit) {
+        int pageSize = clampListingLimit(limit);
+        List<ServicesCatalog> page = CatalogSnapshot.after(sortedById, CursorUtils.decodeId(cursor), pageSize + 1);
+        List<ServiceCardDto> cards = page.stream()
+                .limit(pageSize)
+                .map(ServicesCatalogService::toCard)
+                .toList();
+        String nextCursor = page.size() > pageSize ? CursorUtils.encodeId(page.get(pageSize - 1).getId()) : null;
+        return new CursorPageDto<>(cards, nextCursor);
+    }
+
+    private static int clampListingLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LISTING_PAGE_SIZE));
+    }
+
+    private static ServiceCardDto toCard(ServicesCatalog service) {
+        return ServiceCardDto.builder()
+                .id(service.getId())
+                .name(service.getName())
+                .slug(service.getSlug())
+                .category(service.getCategory())
+                .description(service.getDescription())
+                .imageUrl(service.getImageUrl())
+                .baseDuration(service.getBaseDuration())
+                .featured(service.getFeatured())
+                .build();
+    }
+
+    private List<ServicesCatalog> toServices(SearchHits hits) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        return hits.ids().stream()
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     /**
@@ -124,7 +273,7 @@ public class ServicesCatalogService {
      * @return URL-friendly slug
      */
     public String createSlugPublic(String text) {
-        return createSlug(text);
+        return SlugUtils.toSlug(text);
     }
 
     /**
@@ -133,10 +282,7 @@ public class ServicesCatalogService {
      * @return The service if found
      */
     public Optional<ServicesCatalog> findServiceBySlug(String slug) {
-        List<ServicesCatalog> allServices = servicesCatalogRepository.findAll();
-        return allServices.stream()
-                .filter(service -> createSlug(service.getName()).equals(slug))
-                .findFirst();
+        return catalogSnapshotService.current().findBySlug(slug);
     }
 
     /**
@@ -145,54 +291,54 @@ public class ServicesCatalogService {
      * @return List of services in the given category
      */
     public List<ServicesCatalog> findServicesByCategorySlug(String categorySlug) {
-        List<ServicesCatalog> allServices = servicesCatalogRepository.findAll();
-        System.out.println("🔍 DEBUG: Total services in DB: " + allServices.size());
-        
-        List<ServicesCatalog> matchingServices = allServices.stream()
-                .filter(service -> {
-                    String serviceSlug = createSlug(service.getCategory());
-                    System.out.println("🔍 DEBUG: Service '" + service.getName() + "' category '" + service.getCategory() + "' → slug '" + serviceSlug + "' (looking for '" + categorySlug + "')");
-                    return serviceSlug.equals(categorySlug);
-                })
-                .toList();
-        
-        System.out.println("🔍 DEBUG: Found " + matchingServices.size() + " matching services");
-        return matchingServices;
+        return catalogSnapshotService.current().findByCategorySlug(categorySlug);
+    }
+
+    /**
+     * Get the categories of the current catalog snapshot
+     * @return Category names mapped to their slugs
+     */
+    public java.util.Map<String, String> getCategorySlugs() {
+        return catalogSnapshotService.current().getCategorySlugs();
     }
 
     /**
      * Get detailed service information by slug
      * @param slug The service slug
+     * @param page Zero-based page of the partner list
+     * @param size Number of partners per page
      * @return ServiceDetailsDto with service and partner information
      */
-    public ServiceDetailsDto getServiceDetailsBySlug(String slug) {
+    public ServiceDetailsDto getServiceDetailsBySlug(String slug, int page, int size) {
         Optional<ServicesCatalog> serviceOpt = findServiceBySlug(slug);
         if (serviceOpt.isEmpty()) {
             return null;
         }
-        return getServiceDetails(serviceOpt.get().getId());
+        return getServiceDetails(serviceOpt.get().getId(), page, size);
     }
 
     /**
-     * Get detailed service information including available partners
+     * Get detailed service information with one page of available partners.
+     * Price and rating figures come from the service_stats rollup, not from the partner rows.
      * @param serviceId The service ID
+     * @param page Zero-based page of the partner list
+     * @param size Number of partners per page
      * @return ServiceDetailsDto with service and partner information
      */
-    public ServiceDetailsDto getServiceDetails(Long serviceId) {
-        Optional<ServicesCatalog> serviceOpt = servicesCatalogRepository.findById(serviceId);
+    public ServiceDetailsDto getServiceDetails(Long serviceId, int page, int size) {
+        Optional<ServicesCatalog> serviceOpt = findServiceById(serviceId);
         if (serviceOpt.isEmpty()) {
             return null;
         }
 
-        ServicesCatalog service = serviceOpt.get();
-        List<PartnerService> partnerServices = partnerServiceRepository.findAvailablePartnersByServiceId(serviceId);
-
-        List<ServiceDetailsDto.PartnerServiceDto> partnerDtos = partnerServices.stream()
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PARTNER_PAGE_SIZE)));
+        List<ServiceDetailsDto.PartnerServiceDto> partnerDtos = partnerServiceRepository
+                .findTopAvailableOfferings(serviceId, pageRequest).stream()
                 .map(ps -> ServiceDetailsDto.PartnerServiceDto.builder()
                         .id(ps.getId())
-                        .partnerId(ps.getPartner().getId())
-                        .partnerName(ps.getPartner().getFirstName() + " " + ps.getPartner().getLastName())
-                        .partnerEmail(ps.getPartner().getEmail())
+                        .partnerId(ps.getPartnerId())
+                        .partnerName(ps.getPartnerFirstName() + " " + ps.getPartnerLastName())
+                        .partnerEmail(ps.getPartnerEmail())
                         .price(ps.getPrice())
                         .duration(ps.getDuration())
                         .description(ps.getDescription())
@@ -203,31 +349,18 @@ public class ServicesCatalogService {
                         .build())
                 .toList();
 
-        // Calculate statistics
-        java.math.BigDecimal minPrice = partnerServices.stream()
-                .map(PartnerService::getPrice)
-                .min(java.math.BigDecimal::compareTo)
-                .orElse(java.math.BigDecimal.ZERO);
-
-        java.math.BigDecimal maxPrice = partnerServices.stream()
-                .map(PartnerService::getPrice)
-                .max(java.math.BigDecimal::compareTo)
-                .orElse(java.math.BigDecimal.ZERO);
-
-        Double averageRating = partnerServices.stream()
-                .mapToDouble(PartnerService::getRating)
-                .average()
-                .orElse(0.0);
-
+        ServiceStats stats = serviceStatsService.getStats(serviceId).orElseGet(ServiceStats::new);
         return ServiceDetailsDto.builder()
-                .service(service)
+                .service(serviceOpt.get())
                 .availablePartners(partnerDtos)
-                .minPrice(minPrice)
-                .maxPrice(maxPrice)
-                .totalPartners(partnerServices.size())
-                .averageRating(averageRating)
+                .page(pageRequest.getPageNumber())
+                .pageSize(pageRequest.getPageSize())
+                .minPrice(Optional.ofNullable(stats.getMinPrice()).orElse(BigDecimal.ZERO))
+                .maxPrice(Optional.ofNullable(stats.getMaxPrice()).orElse(BigDecimal.ZERO))
+                .averagePrice(Optional.ofNullable(stats.getAvgPrice()).orElse(BigDecimal.ZERO))
+                .totalPartners(stats.getPartnerCount().intValue())
+                .averageRating(Optional.ofNullable(stats.getAvgRating()).orElse(0.0))
+                .totalJobs(stats.getTotalJobs())
                 .build();
     }
-
-
 }
@@ -0,0 +1,82 @@
+package com.doorserve.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor carries the sort key of the last row a client
+ * has seen, so the next page starts right after it however many rows were inserted meanwhile.
+ */
+public final class CursorUtils {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String DATE_ID_PREFIX = "date-id:";
+
+    /**
+     * Sort key of a row ordered by a date and then by id
+     */
+    public record DateIdKey(LocalDate date, Long id) {
+    }
+
+    private CursorUtils() {
+    }
+
+    public static String encodeId(Long id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    public static String encodeDateId(LocalDate date, Long id) {
+        return encode(DATE_ID_PREFIX + date + ":" + id);
+    }
+
+    /**
+     * Decode a cursor made by {@link #encodeId(Long)}
+     * @param cursor The cursor, may be null or blank for the first page
+     * @return The last seen id, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not made by this class
+     */
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(ID_PREFIX)) {
+                return Long.parseLong(decoded.substring(ID_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the invalid cursor error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    /**
+     * Decode a cursor made by {@link #encodeDateId(LocalDate, Long)}
+     * @param cursor The cursor, may be null or blank for the first page
+     * @return The last seen key, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not made by this class
+     */
+    public static DateIdKey decodeDateId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(DATE_ID_PREFIX)) {
+                String[] parts = decoded.substring(DATE_ID_PREFIX.length()).split(":");
+                if (parts.length == 2) {
+                    return new DateIdKey(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // falls through to the invalid cursor error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package com.doorserve.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for building URL-friendly slugs from service and category names.
+ * Patterns are compiled once instead of on every call.
+ */
+public final class SlugUtils {
+
+    private static final Pattern SPECIAL_CHARS = Pattern.compile("[^a-z0-9\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern REPEATED_HYPHENS = Pattern.compile("-+");
+    private static final Pattern EDGE_HYPHENS = Pattern.compile("^-|-$");
+
+    private SlugUtils() {
+    }
+
+    /**
+     * Convert a string to a URL-friendly slug
+     * @param text The text to convert
+     * @return URL-friendly slug, or an empty string for null input
+     */
+    public static String toSlug(String text) {
+        if (text == null) return "";
+        String slug = SPECIAL_CHARS.matcher(text.toLowerCase()).replaceAll(""); // Remove special characters
+        slug = WHITESPACE.matcher(slug).replaceAll("-"); // Replace spaces with hyphens
+        slug = REPEATED_HYPHENS.matcher(slug).replaceAll("-"); // Replace multiple hyphens with single
+        return EDGE_HYPHENS.matcher(slug).replaceAll(""); // Remove leading/trailing hyphens
+    }
+}
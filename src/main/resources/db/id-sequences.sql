@@ -0,0 +1,9 @@
+-- Hibernate hands out ids of these tables in blocks of 50 (pooled sequence ids), which lets it
+-- batch their inserts. Sequences created before that still step by 1; they must step by the same
+-- amount, or Hibernate falls back to one nextval per row. Run by IdSequenceConfig on every startup,
+-- before Hibernate reads the sequences; a no-op once applied and on a fresh database.
+ALTER SEQUENCE IF EXISTS orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS payments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS bookings_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS cart_id_seq INCREMENT BY 50;
@@ -18,6 +18,7 @@ CREATE TABLE IF NOT EXISTS users (
 CREATE TABLE IF NOT EXISTS services_catalog (
     id SERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
+    slug VARCHAR(255),
     description TEXT,
     category VARCHAR(100) NOT NULL,
     base_duration INTEGER, -- suggested duration
@@ -77,6 +78,8 @@ CREATE TABLE IF NOT EXISTS bookings (
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_user_type ON users(user_type);
 CREATE INDEX IF NOT EXISTS idx_services_catalog_category ON services_catalog(category);
+ALTER TABLE services_catalog ADD COLUMN IF NOT EXISTS slug VARCHAR(255);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_services_catalog_slug ON services_catalog(slug);
 CREATE INDEX IF NOT EXISTS idx_services_catalog_available ON services_catalog(available);
 CREATE INDEX IF NOT EXISTS idx_services_catalog_featured ON services_catalog(featured);
 CREATE INDEX IF NOT EXISTS idx_partner_services_partner_id ON partner_services(partner_id);
@@ -151,3 +154,109 @@ CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
 CREATE INDEX IF NOT EXISTS idx_orders_customer_id ON orders(customer_id);
 CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
+
+-- Per-service rollup of available partner offerings, maintained by ServiceStatsService
+CREATE TABLE IF NOT EXISTS service_stats (
+    service_catalog_id BIGINT PRIMARY KEY,
+    partner_count BIGINT NOT NULL DEFAULT 0,
+    min_price DECIMAL(10, 2),
+    max_price DECIMAL(10, 2),
+    avg_price DECIMAL(10, 2),
+    avg_rating DOUBLE PRECISION,
+    total_jobs BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP
+);
+
+-- Serves the top-rated partner page of a service straight from the index
+CREATE INDEX IF NOT EXISTS idx_partner_services_service_rating
+    ON partner_services(service_catalog_id, rating DESC, price, id) WHERE available = true;
+
+-- Recent booking volume per offering, for the featured ranking
+CREATE INDEX IF NOT EXISTS idx_bookings_partner_service_created ON bookings(partner_service_id, created_at);
+
+-- A partner's bookings on one day, for availability checks
+CREATE INDEX IF NOT EXISTS idx_bookings_partner_date ON bookings(partner_id, booking_date, start_time);
+
+-- Slots reserved during checkout, released on payment or expiry
+CREATE TABLE IF NOT EXISTS slot_holds (
+    id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    partner_id BIGINT NOT NULL,
+    booking_date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_slot_holds_partner_date ON slot_holds(partner_id, booking_date);
+CREATE INDEX IF NOT EXISTS idx_slot_holds_order_id ON slot_holds(order_id);
+
+-- Booking history pages, newest booking date first, per customer, per partner and overall
+CREATE INDEX IF NOT EXISTS idx_bookings_customer_date_id ON bookings(customer_id, booking_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_partner_date_id ON bookings(partner_id, booking_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_date_id ON bookings(booking_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_date_id ON bookings(status, booking_date DESC, id DESC);
+
+-- Recurring bookings; each occurrence is a booking pointing back at its series
+CREATE TABLE IF NOT EXISTS booking_series (
+    id BIGSERIAL PRIMARY KEY,
+    customer_id BIGINT NOT NULL REFERENCES users(id),
+    partner_id BIGINT NOT NULL REFERENCES users(id),
+    partner_service_id BIGINT NOT NULL REFERENCES partner_services(id),
+    frequency VARCHAR(20) NOT NULL,
+    first_date DATE NOT NULL,
+    until_date DATE,
+    occurrences INTEGER,
+    start_time TIME NOT NULL,
+    duration INTEGER,
+    created_at TIMESTAMP
+);
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS series_id BIGINT REFERENCES booking_series(id);
+CREATE INDEX IF NOT EXISTS idx_bookings_series_id ON bookings(series_id) WHERE series_id IS NOT NULL;
+
+-- Monthly range partitions of bookings and order_items on booking_date.
+-- BookingPartitionService converts the plain tables in place on startup when
+-- partitions.convert-tables is set, then creates future partitions and moves old bookings
+-- partitions to bookings_archive (order items stay, as their orders do). Once converted:
+--   bookings      PRIMARY KEY (id, booking_date)
+--   order_items   UNIQUE (id, booking_date); items without a date live in order_items_undated
+-- A partitioned table's unique keys must include booking_date, so nothing can reference
+-- bookings(id) alone. The conversion drops these foreign keys for good; the mappings declare
+-- no constraint for them, so they are not added back, and read an archived booking as null:
+--   payments.booking_id -> bookings(id)
+--   reviews.booking_id  -> bookings(id)
+-- The tables' own foreign keys and indexes are re-created under their original names.
+
+-- Responses of requests made with an Idempotency-Key, replayed to retries
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id VARCHAR(400) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INTEGER,
+    response_content_type VARCHAR(100),
+    response_body TEXT,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
+
+-- Transactional outbox: work written with the change that caused it, carried out by OutboxWorker
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_due ON outbox_events(status, available_at);
+
+-- Hibernate hands out ids of orders, order_items, payments, bookings and cart in blocks of 50
+-- (pooled sequence ids); db/id-sequences.sql steps their sequences by 50 on startup.
+
+-- Stale pending checkouts, for CheckoutRecoveryService
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders(status, created_at);